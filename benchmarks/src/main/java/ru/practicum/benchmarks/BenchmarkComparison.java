@@ -0,0 +1,84 @@
+package ru.practicum.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class BenchmarkComparison {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [threshold %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, JsonNode> baseline = read(args[0]);
+        Map<String, JsonNode> current = read(args[1]);
+
+        boolean regressed = false;
+        System.out.printf("%-75s %14s %14s %8s %12s %12s %8s%n",
+                "Benchmark", "Base ops", "Current ops", "Diff %", "Base B/op", "Current B/op", "Diff %");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("%-75s %14s %14.1f%n", entry.getKey(), "-", score(entry.getValue()));
+                continue;
+            }
+            double throughputDiff = percent(score(base), score(entry.getValue()));
+            double allocationDiff = percent(allocation(base), allocation(entry.getValue()));
+            boolean slower = throughputDiff < -threshold || allocationDiff > threshold;
+            regressed |= slower;
+            System.out.printf("%-75s %14.1f %14.1f %+8.1f %12.1f %12.1f %+8.1f%s%n", entry.getKey(),
+                    score(base), score(entry.getValue()), throughputDiff,
+                    allocation(base), allocation(entry.getValue()), allocationDiff,
+                    slower ? "  REGRESSION" : "");
+        }
+        if (regressed) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> read(String path) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(new File(path))) {
+            String name = result.get("benchmark").asText();
+            JsonNode params = result.get("params");
+            results.put(params == null ? name : name + params, result);
+        }
+        return results;
+    }
+
+    private static double score(JsonNode result) {
+        return result.get("primaryMetric").get("score").asDouble();
+    }
+
+    private static double allocation(JsonNode result) {
+        JsonNode metrics = result.get("secondaryMetrics");
+        if (metrics == null) {
+            return Double.NaN;
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = metrics.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> metric = fields.next();
+            if (metric.getKey().endsWith(ALLOCATION_METRIC)) {
+                return metric.getValue().get("score").asDouble();
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static double percent(double base, double current) {
+        return base == 0 ? 0 : (current - base) / base * 100;
+    }
+}
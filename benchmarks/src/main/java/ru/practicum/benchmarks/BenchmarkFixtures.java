@@ -0,0 +1,87 @@
+package ru.practicum.benchmarks;
+
+import ru.practicum.category.dto.CategoryDto;
+import ru.practicum.category.model.Category;
+import ru.practicum.compilations.model.Compilation;
+import ru.practicum.dto.StatsHitDto;
+import ru.practicum.events.model.Event;
+import ru.practicum.locations.model.Location;
+import ru.practicum.users.model.User;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static ru.practicum.util.enam.EventState.PUBLISHED;
+
+public final class BenchmarkFixtures {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 10, 20, 12, 30, 15);
+
+    private BenchmarkFixtures() {
+    }
+
+    public static Event event(long id) {
+        Category category = new Category();
+        category.setId(id % 10);
+        category.setName("Category " + id % 10);
+
+        User initiator = new User();
+        initiator.setId(id % 100);
+        initiator.setName("Initiator " + id % 100);
+        initiator.setEmail("initiator" + id % 100 + "@practicum.ru");
+
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle("Event number " + id);
+        event.setAnnotation("Short annotation of the event number " + id + " shown in listings");
+        event.setDescription("Full description of the event number " + id + ". ".repeat(20));
+        event.setCategory(category);
+        event.setInitiator(initiator);
+        event.setLocation(new Location(id, 55.75f, 37.62f));
+        event.setEventDate(NOW.plusDays(id % 30));
+        event.setCreatedOn(NOW.minusDays(1));
+        event.setPublishedOn(NOW);
+        event.setPaid(id % 2 == 0);
+        event.setParticipantLimit(100);
+        event.setRequestModeration(true);
+        event.setConfirmedRequests(id % 100);
+        event.setState(PUBLISHED);
+        return event;
+    }
+
+    /**
+     * Categories as the category snapshot holds them, keyed by id, matching the categories of {@link #event}.
+     */
+    public static Map<Long, CategoryDto> categories() {
+        Map<Long, CategoryDto> categories = new HashMap<>();
+        for (long id = 0; id < 10; id++) {
+            categories.put(id, new CategoryDto(id, "Category " + id));
+        }
+        return categories;
+    }
+
+    public static Compilation compilation(int events) {
+        Set<Event> compilationEvents = new LinkedHashSet<>();
+        for (long id = 1; id <= events; id++) {
+            compilationEvents.add(event(id));
+        }
+        return Compilation.builder()
+                .id(1L)
+                .title("Compilation of " + events + " events")
+                .pinned(true)
+                .events(compilationEvents)
+                .build();
+    }
+
+    public static StatsHitDto statsHit() {
+        return StatsHitDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/42")
+                .ip("192.168.10.42")
+                .timestamp(NOW)
+                .build();
+    }
+}
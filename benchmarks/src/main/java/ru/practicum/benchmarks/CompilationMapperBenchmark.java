@@ -0,0 +1,41 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.category.dto.CategoryDto;
+import ru.practicum.compilations.dto.CompilationDto;
+import ru.practicum.compilations.dto.CompilationMapper;
+import ru.practicum.compilations.model.Compilation;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompilationMapperBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int events;
+
+    private Compilation compilation;
+    private Map<Long, CategoryDto> categories;
+
+    @Setup
+    public void setUp() {
+        compilation = BenchmarkFixtures.compilation(events);
+        categories = BenchmarkFixtures.categories();
+    }
+
+    @Benchmark
+    public CompilationDto mapToCompilationDto() {
+        return CompilationMapper.mapToCompilationDto(compilation);
+    }
+
+    @Benchmark
+    public CompilationDto mapToCompilationDtoFromSnapshot() {
+        return CompilationMapper.mapToCompilationDto(compilation, category -> categories.get(category.getId()));
+    }
+}
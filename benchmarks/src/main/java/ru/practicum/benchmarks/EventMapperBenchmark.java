@@ -0,0 +1,49 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.category.dto.CategoryDto;
+import ru.practicum.events.dto.EventFullDto;
+import ru.practicum.events.dto.EventMapper;
+import ru.practicum.events.dto.EventShortDto;
+import ru.practicum.events.model.Event;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventMapperBenchmark {
+
+    private Event event;
+    private Map<Long, CategoryDto> categories;
+
+    @Setup
+    public void setUp() {
+        event = BenchmarkFixtures.event(42);
+        categories = BenchmarkFixtures.categories();
+    }
+
+    @Benchmark
+    public EventShortDto mapToEventShortDto() {
+        return EventMapper.mapToEventShortDto(event);
+    }
+
+    @Benchmark
+    public EventFullDto mapToEventFullDtoWithComments() {
+        return EventMapper.mapToEventFullDtoWithComments(event, 7L);
+    }
+
+    @Benchmark
+    public EventShortDto mapToEventShortDtoFromSnapshot() {
+        return EventMapper.mapToEventShortDto(event, categories.get(event.getCategory().getId()));
+    }
+
+    @Benchmark
+    public EventFullDto mapToEventFullDtoWithCommentsFromSnapshot() {
+        return EventMapper.mapToEventFullDtoWithComments(event, categories.get(event.getCategory().getId()), 7L);
+    }
+}
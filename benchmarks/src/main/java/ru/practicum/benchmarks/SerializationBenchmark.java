@@ -0,0 +1,65 @@
+package ru.practicum.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.dto.StatsHitDto;
+import ru.practicum.events.dto.EventMapper;
+import ru.practicum.events.dto.EventShortDto;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private EventShortDto eventShortDto;
+    private StatsHitDto statsHitDto;
+    private String eventShortJson;
+    private String statsHitJson;
+    private ObjectWriter eventShortWriter;
+    private ObjectReader eventShortReader;
+    private ObjectWriter statsHitWriter;
+    private ObjectReader statsHitReader;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        eventShortWriter = objectMapper.writerFor(EventShortDto.class);
+        eventShortReader = objectMapper.readerFor(EventShortDto.class);
+        statsHitWriter = objectMapper.writerFor(StatsHitDto.class);
+        statsHitReader = objectMapper.readerFor(StatsHitDto.class);
+
+        eventShortDto = EventMapper.mapToEventShortDtoWithComments(BenchmarkFixtures.event(42), 7L);
+        statsHitDto = BenchmarkFixtures.statsHit();
+        eventShortJson = eventShortWriter.writeValueAsString(eventShortDto);
+        statsHitJson = statsHitWriter.writeValueAsString(statsHitDto);
+    }
+
+    @Benchmark
+    public String serializeEventShortDto() throws JsonProcessingException {
+        return eventShortWriter.writeValueAsString(eventShortDto);
+    }
+
+    @Benchmark
+    public EventShortDto deserializeEventShortDto() throws JsonProcessingException {
+        return eventShortReader.readValue(eventShortJson);
+    }
+
+    @Benchmark
+    public String serializeStatsHitDto() throws JsonProcessingException {
+        return statsHitWriter.writeValueAsString(statsHitDto);
+    }
+
+    @Benchmark
+    public StatsHitDto deserializeStatsHitDto() throws JsonProcessingException {
+        return statsHitReader.readValue(statsHitJson);
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.dto.StatsHitDto;
+import ru.practicum.model.StatHit;
+import ru.practicum.model.StatsHitMapper;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsHitMapperBenchmark {
+
+    private StatsHitDto statsHitDto;
+
+    @Setup
+    public void setUp() {
+        statsHitDto = BenchmarkFixtures.statsHit();
+    }
+
+    @Benchmark
+    public StatHit statsHitDtoToStatHit() {
+        return StatsHitMapper.statsHitDtoToStatHit(statsHitDto);
+    }
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.category.dto.CategoryDto;
 import ru.practicum.category.service.CategoryService;
 
@@ -25,12 +26,19 @@ public class CategoryPublicController {
 
     @GetMapping
     public List<CategoryDto> get(@RequestParam(value = "from", defaultValue = PAGE_DEFAULT_FROM) @PositiveOrZero Integer from,
-                                 @RequestParam(value = "size", defaultValue = PAGE_DEFAULT_SIZE) @Positive Integer size) {
+                                 @RequestParam(value = "size", defaultValue = PAGE_DEFAULT_SIZE) @Positive Integer size,
+                                 WebRequest request) {
+        if (request.checkNotModified(categoryService.getCategoriesETag())) {
+            return null;
+        }
         return categoryService.getCategory(from, size);
     }
 
     @GetMapping("/{catId}")
-    public CategoryDto getById(@PathVariable Long catId) {
+    public CategoryDto getById(@PathVariable Long catId, WebRequest request) {
+        if (request.checkNotModified(categoryService.getCategoriesETag())) {
+            return null;
+        }
         return categoryService.getCategoryById(catId);
     }
 }
\ No newline at end of file
@@ -13,6 +13,8 @@ public interface CategoryService {
 
     CategoryDto getCategoryById(Long catId);
 
+    String getCategoriesETag();
+
     CategoryDto updateCategoryById(Long id, CategoryDto categoryDto);
 
     void deleteCategoryById(Long id);
@@ -7,7 +7,6 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.category.dto.CategoryDto;
-import ru.practicum.category.dto.CategoryMapper;
 import ru.practicum.category.dto.NewCategoryDto;
 import ru.practicum.category.model.Category;
 import ru.practicum.handler.NotAvailableException;
@@ -16,7 +15,6 @@ import ru.practicum.category.repository.CategoryRepository;
 import ru.practicum.handler.NotFoundException;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static ru.practicum.category.dto.CategoryMapper.toCategory;
 import static ru.practicum.category.dto.CategoryMapper.toCategoryDto;
@@ -29,20 +27,22 @@ import static ru.practicum.category.dto.CategoryMapper.toCategoryDto;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategorySnapshot categorySnapshot;
 
     @Override
     public CategoryDto createCategory(NewCategoryDto newCategoryDto) {
         Category category = categoryRepository.save(toCategory(newCategoryDto));
+        categorySnapshot.refresh();
         log.info("Created category {}", category);
         return toCategoryDto(category);
     }
 
     @Override
     public CategoryDto getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
+        CategoryDto category = categorySnapshot.getCategory(id)
                 .orElseThrow(() -> new NotFoundException("Category with id = " + id + " does not exist"));
         log.info("Get category with id = {}", id);
-        return toCategoryDto(category);
+        return category;
     }
 
     @Override
@@ -51,16 +51,23 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new NotFoundException("Category with id = " + id + " does not exist"));
         category.setName(categoryDto.getName());
         log.info("Get category with id = {}", category.getId());
-        return toCategoryDto(categoryRepository.save(category));
+        Category savedCategory = categoryRepository.save(category);
+        categorySnapshot.refresh();
+        return toCategoryDto(savedCategory);
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<CategoryDto> getCategory(int from, int size) {
         log.info("Get all categories from {}, size {}", from, size);
-        return categoryRepository.findAll(new Pagination(from, size, Sort.unsorted())).stream()
-                .map(CategoryMapper::toCategoryDto)
-                .collect(Collectors.toList());
+        List<CategoryDto> categories = categorySnapshot.getCategories();
+        int offset = (int) new Pagination(from, size, Sort.unsorted()).getOffset();
+        return categories.subList(Math.min(offset, categories.size()), Math.min(offset + size, categories.size()));
+    }
+
+    @Override
+    public String getCategoriesETag() {
+        return categorySnapshot.getETag();
     }
 
     @Override
@@ -74,6 +81,7 @@ public class CategoryServiceImpl implements CategoryService {
             } catch (DataIntegrityViolationException e) {
                 throw new NotAvailableException("The category with id = " + id + " was not deleted");
             }
+            categorySnapshot.refresh();
             log.info("Deleted category with id = {}", id);
         }
     }
@@ -0,0 +1,119 @@
+package ru.practicum.category.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+import ru.practicum.category.dto.CategoryDto;
+import ru.practicum.category.dto.CategoryMapper;
+import ru.practicum.category.model.Category;
+import ru.practicum.category.repository.CategoryRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of all categories, loaded on first use and dropped after every committed category change.
+ * Changes committed by other nodes show up once the copy is older than categories.snapshot.expire-after-ms.
+ * Event rendering resolves categories here instead of joining the categories table.
+ */
+@Component
+@Slf4j
+public class CategorySnapshot {
+
+    private final CategoryRepository categoryRepository;
+    private final long expireAfterMs;
+    private volatile Snapshot snapshot;
+
+    public CategorySnapshot(CategoryRepository categoryRepository,
+                            @Value("${categories.snapshot.expire-after-ms}") long expireAfterMs) {
+        this.categoryRepository = categoryRepository;
+        this.expireAfterMs = expireAfterMs;
+    }
+
+    public List<CategoryDto> getCategories() {
+        return get().categories;
+    }
+
+    public Optional<CategoryDto> getCategory(Long catId) {
+        return Optional.ofNullable(get().byId.get(catId));
+    }
+
+    public String getETag() {
+        return get().etag;
+    }
+
+    /**
+     * Resolves the category of a loaded event without touching the lazy association,
+     * falling back to the entity for a category that is not in the snapshot yet.
+     */
+    public CategoryDto toCategoryDto(Category category) {
+        if (category == null) {
+            return null;
+        }
+        CategoryDto categoryDto = get().byId.get(category.getId());
+        return categoryDto != null ? categoryDto : CategoryMapper.toCategoryDto(category);
+    }
+
+    public void refresh() {
+        drop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop();
+                }
+            });
+        }
+    }
+
+    private synchronized void drop() {
+        snapshot = null;
+    }
+
+    private Snapshot get() {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            if (!isFresh(snapshot)) {
+                snapshot = load();
+            }
+            return snapshot;
+        }
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return current != null && System.currentTimeMillis() - current.loadedAt < expireAfterMs;
+    }
+
+    private Snapshot load() {
+        List<CategoryDto> categories = List.copyOf(categoryRepository.findAllDtos());
+        log.info("Loaded snapshot of {} categories", categories.size());
+        return new Snapshot(categories);
+    }
+
+    private static class Snapshot {
+        private final List<CategoryDto> categories;
+        private final Map<Long, CategoryDto> byId;
+        private final String etag;
+        private final long loadedAt = System.currentTimeMillis();
+
+        Snapshot(List<CategoryDto> categories) {
+            this.categories = categories;
+            this.byId = categories.stream()
+                    .collect(Collectors.toUnmodifiableMap(CategoryDto::getId, Function.identity()));
+            String content = categories.stream()
+                    .map(category -> category.getId() + ":" + category.getName())
+                    .collect(Collectors.joining("\n"));
+            this.etag = "\"" + DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8)) + "\"";
+        }
+    }
+}
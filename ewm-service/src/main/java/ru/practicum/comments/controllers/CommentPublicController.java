@@ -2,10 +2,12 @@ package ru.practicum.comments.controllers;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.comments.dto.CommentDto;
 import ru.practicum.comments.service.CommentService;
+import ru.practicum.util.PageCursor;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
@@ -23,14 +25,16 @@ public class CommentPublicController {
     private final CommentService commentService;
 
     @GetMapping
-    public List<CommentDto> getByTextPublic(@RequestParam(value = "eventId") Long eventId,
-                                            @RequestParam(required = false) String text,
-                                            @RequestParam(defaultValue = PAGE_DEFAULT_FROM)
-                                            @PositiveOrZero Integer from,
-                                            @RequestParam(defaultValue = PAGE_DEFAULT_SIZE)
-                                            @Positive Integer size
+    public ResponseEntity<List<CommentDto>> getByTextPublic(@RequestParam(value = "eventId") Long eventId,
+                                                            @RequestParam(required = false) String text,
+                                                            @RequestParam(required = false) PageCursor cursor,
+                                                            @RequestParam(defaultValue = PAGE_DEFAULT_FROM)
+                                                            @PositiveOrZero Integer from,
+                                                            @RequestParam(defaultValue = PAGE_DEFAULT_SIZE)
+                                                            @Positive Integer size
     ) {
-        return commentService.getCommentsPublic(eventId, text, from, size);
+        List<CommentDto> comments = commentService.getCommentsPublic(eventId, text, cursor, from, size);
+        return PageCursor.withNextCursor(comments, size, comment -> PageCursor.of(comment.getId()));
     }
 
 }
\ No newline at end of file
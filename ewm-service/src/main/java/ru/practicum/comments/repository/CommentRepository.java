@@ -2,6 +2,7 @@ package ru.practicum.comments.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -35,4 +36,16 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     )
     List<Comment> findAllEventIdAndByText(@Param("event") Long eventId, @Param("text") String text, PageRequest pageable);
 
+    @Query("SELECT c " +
+            "FROM Comment c " +
+            "JOIN FETCH c.event " +
+            "JOIN FETCH c.author " +
+            "where (c.event.id = :event) " +
+            "and (UPPER(c.text) LIKE UPPER(concat('%', :text, '%'))) " +
+            "and c.id > :afterId " +
+            "order by c.id"
+    )
+    List<Comment> findAllEventIdAndByTextAfter(@Param("event") Long eventId, @Param("text") String text,
+                                               @Param("afterId") Long afterId, Pageable pageable);
+
 }
\ No newline at end of file
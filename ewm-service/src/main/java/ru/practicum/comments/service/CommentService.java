@@ -3,6 +3,7 @@ package ru.practicum.comments.service;
 
 import ru.practicum.comments.dto.CommentDto;
 import ru.practicum.comments.dto.NewCommentDto;
+import ru.practicum.util.PageCursor;
 
 import java.util.List;
 
@@ -25,6 +26,6 @@ public interface CommentService {
 
     void deleteCommentByIdAdmin(Long commentId);
 
-    List<CommentDto> getCommentsPublic(Long eventId, String text, Integer from, Integer size);
+    List<CommentDto> getCommentsPublic(Long eventId, String text, PageCursor cursor, Integer from, Integer size);
 
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package ru.practicum.comments.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +17,7 @@ import ru.practicum.handler.NotFoundException;
 import ru.practicum.handler.ValidateException;
 import ru.practicum.users.model.User;
 import ru.practicum.users.repository.UserRepository;
+import ru.practicum.util.PageCursor;
 import ru.practicum.util.Pagination;
 
 import java.time.LocalDateTime;
@@ -134,10 +136,19 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
-    public List<CommentDto> getCommentsPublic(Long eventId, String text, Integer from, Integer size) {
+    public List<CommentDto> getCommentsPublic(Long eventId, String text, PageCursor cursor, Integer from,
+                                              Integer size) {
         log.info("Got comment for event with id = {} with text = {} from {}, size {}", eventId, text, from, size);
 
-        return commentRepository.findAllEventIdAndByText(eventId, text, new Pagination(from, size, Sort.unsorted())).stream()
+        List<Comment> comments;
+        if (cursor != null) {
+            comments = commentRepository.findAllEventIdAndByTextAfter(eventId, text, cursor.getId(),
+                    PageRequest.of(0, size));
+        } else {
+            comments = commentRepository.findAllEventIdAndByText(eventId, text, new Pagination(from, size,
+                    Sort.by("id")));
+        }
+        return comments.stream()
                 .map(CommentMapper::mapToCommentDto)
                 .collect(Collectors.toList());
     }
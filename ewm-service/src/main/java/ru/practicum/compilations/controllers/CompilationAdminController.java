@@ -3,6 +3,7 @@ package ru.practicum.compilations.controllers;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.compilations.dto.CompilationDto;
 import ru.practicum.compilations.dto.CompilationUpdatedDto;
@@ -10,10 +11,13 @@ import ru.practicum.compilations.dto.NewCompilationDto;
 import ru.practicum.compilations.service.CompilationService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/admin/compilations")
 @RequiredArgsConstructor
+@Validated
 @Slf4j
 public class CompilationAdminController {
 
@@ -36,4 +40,18 @@ public class CompilationAdminController {
     public void delete(@PathVariable(value = "compId") Long compId) {
         compilationService.deleteCompilationByIdAdmin(compId);
     }
+
+    @PostMapping("/{compId}/events")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void addEvents(@PathVariable(value = "compId") Long compId,
+                          @RequestBody @NotEmpty Set<Long> events) {
+        compilationService.addCompilationEventsAdmin(compId, events);
+    }
+
+    @DeleteMapping("/{compId}/events")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void removeEvents(@PathVariable(value = "compId") Long compId,
+                             @RequestParam @NotEmpty Set<Long> events) {
+        compilationService.removeCompilationEventsAdmin(compId, events);
+    }
 }
\ No newline at end of file
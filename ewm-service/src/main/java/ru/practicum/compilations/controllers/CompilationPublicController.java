@@ -2,14 +2,17 @@ package ru.practicum.compilations.controllers;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.compilations.dto.CompilationDto;
 import ru.practicum.compilations.service.CompilationService;
+import ru.practicum.events.dto.EventShortDto;
+import ru.practicum.util.PageCursor;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
-import java.util.Collection;
+import java.util.List;
 
 import static ru.practicum.util.Constants.PAGE_DEFAULT_FROM;
 import static ru.practicum.util.Constants.PAGE_DEFAULT_SIZE;
@@ -24,17 +27,33 @@ public class CompilationPublicController {
     private final CompilationService serviceCompilation;
 
     @GetMapping("/{compId}")
-    public CompilationDto getByIdPublic(@PathVariable Long compId) {
-        return serviceCompilation.getCompilationByIdPublic(compId);
+    public CompilationDto getByIdPublic(@PathVariable Long compId,
+                                        @RequestParam(defaultValue = "true") Boolean withEvents) {
+        return serviceCompilation.getCompilationByIdPublic(compId, withEvents);
+    }
+
+    @GetMapping("/{compId}/events")
+    public ResponseEntity<List<EventShortDto>> getEventsPublic(@PathVariable Long compId,
+                                                               @RequestParam(required = false) PageCursor cursor,
+                                                               @RequestParam(defaultValue = PAGE_DEFAULT_FROM)
+                                                               @PositiveOrZero Integer from,
+                                                               @RequestParam(defaultValue = PAGE_DEFAULT_SIZE)
+                                                               @Positive Integer size) {
+        List<EventShortDto> events = serviceCompilation.getCompilationEventsPublic(compId, cursor, from, size);
+        return PageCursor.withNextCursor(events, size, event -> PageCursor.of(event.getId()));
     }
 
     @GetMapping
-    public Collection<CompilationDto> get(@RequestParam(required = false) Boolean pinned,
-                                          @RequestParam(defaultValue = PAGE_DEFAULT_FROM)
-                                          @PositiveOrZero Integer from,
-                                          @RequestParam(defaultValue = PAGE_DEFAULT_SIZE)
-                                          @Positive Integer size) {
-        return serviceCompilation.getAllCompilationsPublic(pinned, from, size);
+    public ResponseEntity<List<CompilationDto>> get(@RequestParam(required = false) Boolean pinned,
+                                                    @RequestParam(defaultValue = "true") Boolean withEvents,
+                                                    @RequestParam(required = false) PageCursor cursor,
+                                                    @RequestParam(defaultValue = PAGE_DEFAULT_FROM)
+                                                    @PositiveOrZero Integer from,
+                                                    @RequestParam(defaultValue = PAGE_DEFAULT_SIZE)
+                                                    @Positive Integer size) {
+        List<CompilationDto> compilations = serviceCompilation.getAllCompilationsPublic(pinned, withEvents, cursor,
+                from, size);
+        return PageCursor.withNextCursor(compilations, size, compilation -> PageCursor.of(compilation.getId()));
     }
 
 }
\ No newline at end of file
@@ -1,20 +1,29 @@
 package ru.practicum.compilations.dto;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.category.dto.CategoryDto;
+import ru.practicum.category.dto.CategoryMapper;
+import ru.practicum.category.model.Category;
 import ru.practicum.compilations.model.Compilation;
 import ru.practicum.events.dto.EventMapper;
 
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @UtilityClass
 public class CompilationMapper {
 
     public static CompilationDto mapToCompilationDto(Compilation compilation) {
+        return mapToCompilationDto(compilation, CategoryMapper::toCategoryDto);
+    }
+
+    public static CompilationDto mapToCompilationDto(Compilation compilation,
+                                                     Function<Category, CategoryDto> categories) {
         return CompilationDto.builder()
                 .events(compilation.getEvents() != null
                         ? compilation.getEvents()
                         .stream()
-                        .map(EventMapper::mapToEventShortDto)
+                        .map(event -> EventMapper.mapToEventShortDto(event, categories.apply(event.getCategory())))
                         .collect(Collectors.toSet())
                         : null)
                 .id(compilation.getId())
@@ -23,6 +32,14 @@ public class CompilationMapper {
                 .build();
     }
 
+    public static CompilationDto mapToCompilationDtoWithoutEvents(Compilation compilation) {
+        return CompilationDto.builder()
+                .id(compilation.getId())
+                .pinned(compilation.getPinned())
+                .title(compilation.getTitle())
+                .build();
+    }
+
     public static Compilation mapToNewCompilation(NewCompilationDto compilationDto) {
         Compilation compilation = new Compilation();
         compilation.setPinned(compilationDto.getPinned());
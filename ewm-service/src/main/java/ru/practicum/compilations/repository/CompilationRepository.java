@@ -1,10 +1,51 @@
 package ru.practicum.compilations.repository;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.util.Pagination;
 import ru.practicum.compilations.model.Compilation;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
-    Page<Compilation> findAllByPinned(Boolean pinned, Pagination paginationSetup);
+    List<Compilation> findAllBy(Pagination paginationSetup);
+
+    List<Compilation> findAllByPinned(Boolean pinned, Pagination paginationSetup);
+
+    List<Compilation> findAllByIdGreaterThanOrderById(Long afterId, Pageable pageable);
+
+    List<Compilation> findAllByPinnedAndIdGreaterThanOrderById(Boolean pinned, Long afterId, Pageable pageable);
+
+    @Query("SELECT DISTINCT c " +
+            "FROM Compilation c " +
+            "LEFT JOIN FETCH c.events e " +
+            "LEFT JOIN FETCH e.initiator " +
+            "WHERE c.id IN :ids")
+    List<Compilation> findAllWithEventsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT DISTINCT c " +
+            "FROM Compilation c " +
+            "LEFT JOIN FETCH c.events e " +
+            "LEFT JOIN FETCH e.initiator " +
+            "WHERE c.id = :id")
+    Optional<Compilation> findWithEventsById(Long id);
+
+    @Modifying
+    @Query(value = "INSERT INTO compilation_events (compilation_id, event_id) " +
+            "SELECT :compId, e.id FROM events e " +
+            "WHERE e.id IN (:eventIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM compilation_events ce " +
+            "WHERE ce.compilation_id = :compId AND ce.event_id = e.id)",
+            nativeQuery = true)
+    int addEvents(Long compId, Collection<Long> eventIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM compilation_events " +
+            "WHERE compilation_id = :compId AND event_id IN (:eventIds)",
+            nativeQuery = true)
+    int removeEvents(Long compId, Collection<Long> eventIds);
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package ru.practicum.compilations.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.compilations.dto.CompilationDto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of rendered compilations and compilation listings.
+ * Writes evict right away and once more after commit, so a reader racing the transaction
+ * cannot put the old state back; a generation counter drops loads that started before an eviction.
+ */
+@Component
+public class CompilationCache {
+
+    private final int maxSize;
+    private final long expireAfterMs;
+    private final Map<Long, Entry<CompilationDto>> compilations;
+    private final Map<String, Entry<List<CompilationDto>>> pages;
+    private final Counter hits;
+    private final Counter misses;
+    private long generation;
+
+    public CompilationCache(@Value("${compilations.cache.max-size}") int maxSize,
+                            @Value("${compilations.cache.expire-after-ms}") long expireAfterMs,
+                            MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.expireAfterMs = expireAfterMs;
+        this.compilations = boundedMap();
+        this.pages = boundedMap();
+        this.hits = meterRegistry.counter("compilations.cache", "result", "hit");
+        this.misses = meterRegistry.counter("compilations.cache", "result", "miss");
+        meterRegistry.gauge("compilations.cache.size", this, CompilationCache::size);
+        meterRegistry.gauge("compilations.cache.hit.ratio", this, CompilationCache::hitRatio);
+    }
+
+    public CompilationDto getCompilation(Long compId, Supplier<CompilationDto> loader) {
+        return get(compilations, compId, loader);
+    }
+
+    public List<CompilationDto> getPage(String pageKey, Supplier<List<CompilationDto>> loader) {
+        return get(pages, pageKey, loader);
+    }
+
+    public void evict(Long compId) {
+        afterCommit(() -> {
+            compilations.remove(compId);
+            pages.clear();
+        });
+    }
+
+    public void evictPages() {
+        afterCommit(pages::clear);
+    }
+
+    public void evictByEvent(Long eventId) {
+        afterCommit(() -> {
+            compilations.values().removeIf(entry -> entry.value.getEvents() != null && entry.value.getEvents()
+                    .stream()
+                    .anyMatch(event -> eventId.equals(event.getId())));
+            pages.clear();
+        });
+    }
+
+    public synchronized int size() {
+        return compilations.size() + pages.size();
+    }
+
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private <K, V> V get(Map<K, Entry<V>> cache, K key, Supplier<V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = cache.get(key);
+            if (entry != null && System.currentTimeMillis() - entry.loadedAt < expireAfterMs) {
+                hits.increment();
+                return entry.value;
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+        V value = loader.get();
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                cache.put(key, new Entry<>(value, System.currentTimeMillis()));
+            }
+        }
+        return value;
+    }
+
+    private void afterCommit(Runnable eviction) {
+        Runnable evict = () -> {
+            synchronized (this) {
+                generation++;
+                eviction.run();
+            }
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private <K, V> Map<K, V> boundedMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > CompilationCache.this.maxSize;
+            }
+        };
+    }
+
+    @AllArgsConstructor
+    private static class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+    }
+}
@@ -3,8 +3,11 @@ package ru.practicum.compilations.service;
 import ru.practicum.compilations.dto.CompilationDto;
 import ru.practicum.compilations.dto.NewCompilationDto;
 import ru.practicum.compilations.dto.CompilationUpdatedDto;
+import ru.practicum.events.dto.EventShortDto;
+import ru.practicum.util.PageCursor;
 
 import java.util.List;
+import java.util.Set;
 
 public interface CompilationService {
 
@@ -14,8 +17,15 @@ public interface CompilationService {
 
     void deleteCompilationByIdAdmin(Long compId);
 
-    List<CompilationDto> getAllCompilationsPublic(Boolean pinned, Integer from, Integer size);
+    void addCompilationEventsAdmin(Long compId, Set<Long> events);
 
-    CompilationDto getCompilationByIdPublic(Long id);
+    void removeCompilationEventsAdmin(Long compId, Set<Long> events);
+
+    List<CompilationDto> getAllCompilationsPublic(Boolean pinned, boolean withEvents, PageCursor cursor, Integer from,
+                                                  Integer size);
+
+    CompilationDto getCompilationByIdPublic(Long id, boolean withEvents);
+
+    List<EventShortDto> getCompilationEventsPublic(Long compId, PageCursor cursor, Integer from, Integer size);
 
 }
\ No newline at end of file
@@ -2,11 +2,16 @@ package ru.practicum.compilations.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.category.service.CategorySnapshot;
 import ru.practicum.compilations.dto.CompilationUpdatedDto;
+import ru.practicum.events.dto.EventMapper;
+import ru.practicum.events.dto.EventShortDto;
 import ru.practicum.events.model.Event;
+import ru.practicum.util.PageCursor;
 import ru.practicum.util.Pagination;
 import ru.practicum.compilations.dto.CompilationDto;
 import ru.practicum.compilations.dto.CompilationMapper;
@@ -16,14 +21,16 @@ import ru.practicum.compilations.repository.CompilationRepository;
 import ru.practicum.events.repository.EventRepository;
 import ru.practicum.handler.NotFoundException;
 
-import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.compilations.dto.CompilationMapper.mapToNewCompilation;
 import static ru.practicum.compilations.dto.CompilationMapper.mapToCompilationDto;
+import static ru.practicum.compilations.dto.CompilationMapper.mapToCompilationDtoWithoutEvents;
 
 @Service
 @Slf4j
@@ -34,6 +41,8 @@ public class CompilationServiceImpl implements CompilationService {
 
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
+    private final CompilationCache compilationCache;
+    private final CategorySnapshot categorySnapshot;
 
 
     @Override
@@ -48,19 +57,20 @@ public class CompilationServiceImpl implements CompilationService {
 
         Set<Long> eventsId = compilationDto.getEvents();
         if (eventsId != null) {
-            Set<Event> events = new HashSet<>(eventRepository.findAllByIdIn(eventsId));
+            Set<Event> events = new HashSet<>(eventRepository.findAllWithInitiatorByIdIn(eventsId));
             compilation.setEvents(events);
         }
 
         Compilation savedCompilation = compilationRepository.save(compilation);
+        compilationCache.evictPages();
 
-        return mapToCompilationDto(savedCompilation);
+        return mapToCompilationDto(savedCompilation, categorySnapshot::toCategoryDto);
     }
 
 
     @Override
     public CompilationDto updateCompilationByIdAdmin(Long compId, CompilationUpdatedDto dto) {
-        Compilation toUpdate = compilationRepository.findById(compId).orElseThrow(() ->
+        Compilation toUpdate = compilationRepository.findWithEventsById(compId).orElseThrow(() ->
                 new NotFoundException(String.format("Compilation with id = " + compId + " was not found")));
 
         if (dto.getTitle() != null && !dto.getTitle().isBlank()) {
@@ -72,11 +82,18 @@ public class CompilationServiceImpl implements CompilationService {
 
         if (dto.getEvents() != null && !dto.getEvents().isEmpty()) {
             Set<Long> eventsId = dto.getEvents();
-            Collection<Event> events = eventRepository.findAllByIdIn(eventsId);
-            toUpdate.setEvents(new HashSet<>(events));
+            Set<Event> events = new HashSet<>(eventRepository.findAllWithInitiatorByIdIn(eventsId));
+            if (toUpdate.getEvents() == null) {
+                toUpdate.setEvents(events);
+            } else {
+                // mutating the loaded set lets Hibernate write only the removed and added join rows
+                toUpdate.getEvents().retainAll(events);
+                toUpdate.getEvents().addAll(events);
+            }
         }
+        compilationCache.evict(compId);
 
-        return mapToCompilationDto(toUpdate);
+        return mapToCompilationDto(toUpdate, categorySnapshot::toCategoryDto);
     }
 
     @Override
@@ -84,36 +101,107 @@ public class CompilationServiceImpl implements CompilationService {
         getCompilation(compId);
         log.info("Deleted compilation with id = {} ", compId);
         compilationRepository.deleteById(compId);
+        compilationCache.evict(compId);
+    }
+
+    @Override
+    public void addCompilationEventsAdmin(Long compId, Set<Long> events) {
+        checkCompilationExists(compId);
+        int added = compilationRepository.addEvents(compId, events);
+        compilationCache.evict(compId);
+        log.info("Added {} events to compilation with id = {}", added, compId);
+    }
+
+    @Override
+    public void removeCompilationEventsAdmin(Long compId, Set<Long> events) {
+        checkCompilationExists(compId);
+        int removed = compilationRepository.removeEvents(compId, events);
+        compilationCache.evict(compId);
+        log.info("Removed {} events from compilation with id = {}", removed, compId);
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<CompilationDto> getAllCompilationsPublic(Boolean pinned, Integer from, Integer size) {
+    public List<CompilationDto> getAllCompilationsPublic(Boolean pinned, boolean withEvents, PageCursor cursor,
+                                                         Integer from, Integer size) {
         log.info("Got all compilations from {}, size {}", from, size);
 
-        if (pinned == null) {
-            return compilationRepository.findAll(new Pagination(from, size, Sort.unsorted())).getContent().stream()
-                    .map(CompilationMapper::mapToCompilationDto)
+        String pageKey = pinned + ":" + withEvents + ":" + (cursor != null ? "after" + cursor.getId() : from) + ":"
+                + size;
+        return compilationCache.getPage(pageKey, () -> findCompilations(pinned, withEvents, cursor, from, size));
+    }
+
+    private List<CompilationDto> findCompilations(Boolean pinned, boolean withEvents, PageCursor cursor,
+                                                  Integer from, Integer size) {
+        List<Compilation> compilations;
+        if (cursor != null) {
+            compilations = pinned == null
+                    ? compilationRepository.findAllByIdGreaterThanOrderById(cursor.getId(), PageRequest.of(0, size))
+                    : compilationRepository.findAllByPinnedAndIdGreaterThanOrderById(pinned, cursor.getId(),
+                    PageRequest.of(0, size));
+        } else if (pinned == null) {
+            compilations = compilationRepository.findAllBy(new Pagination(from, size, Sort.by("id")));
+        } else {
+            compilations = compilationRepository.findAllByPinned(pinned, new Pagination(from, size, Sort.by("id")));
+        }
+        if (!withEvents) {
+            return compilations.stream()
+                    .map(CompilationMapper::mapToCompilationDtoWithoutEvents)
                     .collect(Collectors.toList());
         }
-
-        return compilationRepository.findAllByPinned(pinned, new Pagination(from, size, Sort.unsorted()))
-                .getContent().stream()
-                .map(CompilationMapper::mapToCompilationDto)
+        if (compilations.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Compilation> loaded = compilationRepository.findAllWithEventsByIdIn(compilations.stream()
+                        .map(Compilation::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Compilation::getId, Function.identity()));
+
+        return compilations.stream()
+                .map(compilation -> loaded.get(compilation.getId()))
+                .map(compilation -> mapToCompilationDto(compilation, categorySnapshot::toCategoryDto))
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     @Override
-    public CompilationDto getCompilationByIdPublic(Long id) {
-        Compilation compilation = getCompilation(id);
+    public CompilationDto getCompilationByIdPublic(Long id, boolean withEvents) {
         log.info("Got compilation with id= {} public", id);
-        return mapToCompilationDto(compilation);
+        if (!withEvents) {
+            return mapToCompilationDtoWithoutEvents(compilationRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Compilation with id = " + id + " wasn't found")));
+        }
+        return compilationCache.getCompilation(id, () -> mapToCompilationDto(getCompilation(id),
+                categorySnapshot::toCategoryDto));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<EventShortDto> getCompilationEventsPublic(Long compId, PageCursor cursor, Integer from,
+                                                          Integer size) {
+        checkCompilationExists(compId);
+        List<Event> events;
+        if (cursor != null) {
+            events = eventRepository.findAllByCompilationIdAfter(compId, cursor.getId(), PageRequest.of(0, size));
+        } else {
+            events = eventRepository.findAllByCompilationId(compId, new Pagination(from, size, Sort.unsorted()));
+        }
+        log.info("Got events of compilation with id = {} from {}, size {}", compId, from, size);
+        return events.stream()
+                .map(event -> EventMapper.mapToEventShortDto(event,
+                        categorySnapshot.toCategoryDto(event.getCategory())))
+                .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     private Compilation getCompilation(Long id) {
-        return compilationRepository.findById(id)
+        return compilationRepository.findWithEventsById(id)
                 .orElseThrow(() -> new NotFoundException("Compilation with id = " + id + " wasn't found"));
     }
+
+    private void checkCompilationExists(Long compId) {
+        if (!compilationRepository.existsById(compId)) {
+            throw new NotFoundException("Compilation with id = " + compId + " wasn't found");
+        }
+    }
 }
\ No newline at end of file
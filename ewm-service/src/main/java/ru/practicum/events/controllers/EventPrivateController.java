@@ -1,8 +1,10 @@
 package ru.practicum.events.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.events.dto.EventFullDto;
@@ -14,11 +16,16 @@ import ru.practicum.requests.dto.EventRequestStatusUpdateRequest;
 import ru.practicum.requests.dto.EventRequestStatusUpdateResult;
 import ru.practicum.requests.dto.ParticipationRequestDto;
 import ru.practicum.requests.service.RequestService;
+import ru.practicum.util.Ndjson;
+import ru.practicum.util.PageCursor;
+import ru.practicum.util.enam.EventRequestStatus;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.Collection;
+import java.util.List;
 
 import static ru.practicum.util.Constants.PAGE_DEFAULT_FROM;
 import static ru.practicum.util.Constants.PAGE_DEFAULT_SIZE;
@@ -32,6 +39,7 @@ public class EventPrivateController {
 
     private final EventService eventService;
     private final RequestService requestService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -64,9 +72,30 @@ public class EventPrivateController {
     }
 
     @GetMapping("/{eventId}/requests")
-    public Collection<ParticipationRequestDto> getParticipationRequest(@PathVariable(value = "userId") Long userId,
-                                                                       @PathVariable(value = "eventId") Long eventId) {
-        return requestService.getParticipationRequestPrivate(userId, eventId);
+    public ResponseEntity<List<ParticipationRequestDto>> getParticipationRequest(
+            @PathVariable(value = "userId") Long userId,
+            @PathVariable(value = "eventId") Long eventId,
+            @RequestParam(required = false) EventRequestStatus status,
+            @RequestParam(required = false) PageCursor cursor,
+            @RequestParam(required = false) @PositiveOrZero Integer from,
+            @RequestParam(required = false) @Positive Integer size) {
+        List<ParticipationRequestDto> requests = requestService.getParticipationRequestPrivate(userId, eventId,
+                status, cursor, from, size);
+        if (cursor == null && from == null && size == null) {
+            return ResponseEntity.ok(requests);
+        }
+        return PageCursor.withNextCursor(requests, size != null ? size : Integer.parseInt(PAGE_DEFAULT_SIZE),
+                request -> PageCursor.of(request.getId()));
+    }
+
+    @GetMapping("/{eventId}/requests/stream")
+    public void streamParticipationRequest(@PathVariable(value = "userId") Long userId,
+                                           @PathVariable(value = "eventId") Long eventId,
+                                           @RequestParam(required = false) EventRequestStatus status,
+                                           HttpServletResponse response) {
+        requestService.streamParticipationRequestPrivate(userId, eventId, status,
+                Ndjson.writer(objectMapper, response));
+        response.setContentType(Ndjson.MEDIA_TYPE);
     }
 
     @PatchMapping("/{eventId}/requests")
@@ -3,19 +3,20 @@ package ru.practicum.events.controllers;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.events.dto.EventFullDto;
 import ru.practicum.events.dto.EventShortDto;
 import ru.practicum.util.enam.EventsSort;
 import ru.practicum.events.service.EventService;
+import ru.practicum.util.PageCursor;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.ValidationException;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
-import java.util.Collection;
 import java.util.List;
 
 import static ru.practicum.util.Constants.*;
@@ -36,24 +37,35 @@ public class EventPublicController {
     }
 
     @GetMapping
-    public Collection<EventShortDto> getEventsPublic(@RequestParam(required = false) String text,
-                                                     @RequestParam(required = false) List<Long> categories,
-                                                     @RequestParam(required = false) Boolean paid,
-                                                     @RequestParam(required = false)
-                                                     @DateTimeFormat(pattern = DATE_DEFAULT) LocalDateTime rangeStart,
-                                                     @RequestParam(required = false)
-                                                     @DateTimeFormat(pattern = DATE_DEFAULT) LocalDateTime rangeEnd,
-                                                     @RequestParam(defaultValue = "false") Boolean onlyAvailable,
-                                                     @RequestParam(defaultValue = "EVENT_DATE") String sort,
-                                                     @RequestParam(defaultValue = PAGE_DEFAULT_FROM)
-                                                     @PositiveOrZero Integer from,
-                                                     @RequestParam(defaultValue = PAGE_DEFAULT_SIZE)
-                                                     @Positive Integer size,
-                                                     HttpServletRequest request
+    public ResponseEntity<List<EventShortDto>> getEventsPublic(@RequestParam(required = false) String text,
+                                                               @RequestParam(required = false) List<Long> categories,
+                                                               @RequestParam(required = false) Boolean paid,
+                                                               @RequestParam(required = false)
+                                                               @DateTimeFormat(pattern = DATE_DEFAULT)
+                                                               LocalDateTime rangeStart,
+                                                               @RequestParam(required = false)
+                                                               @DateTimeFormat(pattern = DATE_DEFAULT)
+                                                               LocalDateTime rangeEnd,
+                                                               @RequestParam(defaultValue = "false")
+                                                               Boolean onlyAvailable,
+                                                               @RequestParam(defaultValue = "EVENT_DATE") String sort,
+                                                               @RequestParam(required = false) PageCursor cursor,
+                                                               @RequestParam(defaultValue = PAGE_DEFAULT_FROM)
+                                                               @PositiveOrZero Integer from,
+                                                               @RequestParam(defaultValue = PAGE_DEFAULT_SIZE)
+                                                               @Positive Integer size,
+                                                               HttpServletRequest request
     ) {
         EventsSort sortParam = EventsSort.from(sort).orElseThrow(() -> new ValidationException("Sort isn't valid: "
                 + sort));
-        return eventService.getEventsPublic(text, categories, paid, rangeStart, rangeEnd, onlyAvailable,
-                sortParam, from, size, request);
+        if (cursor != null && (sortParam != EventsSort.EVENT_DATE || cursor.getDate() == null)) {
+            throw new ValidationException("Cursor pagination is only supported for sort=EVENT_DATE");
+        }
+        List<EventShortDto> events = eventService.getEventsPublic(text, categories, paid, rangeStart, rangeEnd,
+                onlyAvailable, sortParam, cursor, from, size, request);
+        if (sortParam != EventsSort.EVENT_DATE) {
+            return ResponseEntity.ok(events);
+        }
+        return PageCursor.withNextCursor(events, size, event -> PageCursor.of(event.getEventDate(), event.getId()));
     }
 }
@@ -2,6 +2,7 @@ package ru.practicum.events.dto;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.category.dto.CategoryDto;
 import ru.practicum.category.model.Category;
 import ru.practicum.events.model.Event;
 import ru.practicum.locations.model.Location;
@@ -14,6 +15,10 @@ import static ru.practicum.users.dto.UserMapper.toUserShortDto;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class EventMapper {
     public static EventFullDto mapToEventFullDto(Event event) {
+        return mapToEventFullDto(event, event == null ? null : toCategoryDto(event.getCategory()));
+    }
+
+    public static EventFullDto mapToEventFullDto(Event event, CategoryDto category) {
         if (event == null) {
             return null;
         }
@@ -29,7 +34,7 @@ public class EventMapper {
                 .title(event.getTitle())
                 .state(event.getState())
                 .description(event.getDescription())
-                .category(toCategoryDto(event.getCategory()))
+                .category(category)
                 .createdOn(event.getCreatedOn())
                 .initiator(toUserShortDto(event.getInitiator()))
                 .requestModeration(event.getRequestModeration())
@@ -39,6 +44,11 @@ public class EventMapper {
 
 
     public static EventFullDto mapToEventFullDtoWithComments(Event event, Long comments) {
+        return mapToEventFullDtoWithComments(event, event == null ? null : toCategoryDto(event.getCategory()),
+                comments);
+    }
+
+    public static EventFullDto mapToEventFullDtoWithComments(Event event, CategoryDto category, Long comments) {
         if (event == null) {
             return null;
         }
@@ -54,7 +64,7 @@ public class EventMapper {
                 .title(event.getTitle())
                 .state(event.getState())
                 .description(event.getDescription())
-                .category(toCategoryDto(event.getCategory()))
+                .category(category)
                 .createdOn(event.getCreatedOn())
                 .initiator(toUserShortDto(event.getInitiator()))
                 .requestModeration(event.getRequestModeration())
@@ -64,9 +74,13 @@ public class EventMapper {
     }
 
     public static EventShortDto mapToEventShortDtoWithComments(Event event, Long comments) {
+        return mapToEventShortDtoWithComments(event, toCategoryDto(event.getCategory()), comments);
+    }
+
+    public static EventShortDto mapToEventShortDtoWithComments(Event event, CategoryDto category, Long comments) {
         return EventShortDto.builder()
                 .annotation(event.getAnnotation())
-                .category(toCategoryDto(event.getCategory()))
+                .category(category)
                 .confirmedRequests(event.getConfirmedRequests())
                 .eventDate(event.getEventDate())
                 .id(event.getId())
@@ -78,9 +92,13 @@ public class EventMapper {
     }
 
     public static EventShortDto mapToEventShortDto(Event event) {
+        return mapToEventShortDto(event, toCategoryDto(event.getCategory()));
+    }
+
+    public static EventShortDto mapToEventShortDto(Event event, CategoryDto category) {
         return EventShortDto.builder()
                 .annotation(event.getAnnotation())
-                .category(toCategoryDto(event.getCategory()))
+                .category(category)
                 .confirmedRequests(event.getConfirmedRequests())
                 .eventDate(event.getEventDate())
                 .id(event.getId())
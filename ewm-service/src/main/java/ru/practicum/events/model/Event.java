@@ -57,9 +57,12 @@ public class Event {
     @Column(name = "participant_limit", nullable = false)
     private Integer participantLimit;
 
-    @Transient
+    @Column(name = "confirmed_requests", nullable = false, updatable = false)
     private Long confirmedRequests = 0L;
 
+    @Column(name = "views", nullable = false, updatable = false)
+    private Long views = 0L;
+
     @Column(name = "request_moderation", nullable = false)
     private Boolean requestModeration;
 
@@ -0,0 +1,56 @@
+package ru.practicum.events.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Brings events.confirmed_requests back to the number of confirmed requests. Each event is fixed in a transaction
+ * of its own that locks the event row before counting, so the count sees every confirmation that changed the
+ * counter before the lock was granted and none can commit between the count and the write.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EventConfirmedRequestsRepository {
+
+    private static final String COUNT_CONFIRMED = "SELECT COUNT(*) FROM requests r " +
+            "WHERE r.event_id = :eventId " +
+            "AND r.status = 'CONFIRMED'";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the events whose counter looked wrong in one snapshot; {@link #reconcile(Long)} checks them again.
+     */
+    public List<Long> findDriftedIds() {
+        return jdbcTemplate.queryForList("SELECT e.id FROM events e " +
+                "WHERE e.confirmed_requests <> (SELECT COUNT(*) FROM requests r " +
+                "WHERE r.event_id = e.id AND r.status = 'CONFIRMED') " +
+                "ORDER BY e.id", new MapSqlParameterSource(), Long.class);
+    }
+
+    /**
+     * Fixes the counter of the event and returns whether it was wrong.
+     */
+    @Transactional
+    public boolean reconcile(Long eventId) {
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("eventId", eventId);
+        List<Long> counter = jdbcTemplate.queryForList("SELECT confirmed_requests FROM events " +
+                "WHERE id = :eventId " +
+                "FOR UPDATE", params, Long.class);
+        if (counter.isEmpty()) {
+            return false;
+        }
+        Long confirmed = jdbcTemplate.queryForObject(COUNT_CONFIRMED, params, Long.class);
+        if (counter.get(0).equals(confirmed)) {
+            return false;
+        }
+        jdbcTemplate.update("UPDATE events SET confirmed_requests = :confirmed WHERE id = :eventId",
+                params.addValue("confirmed", confirmed));
+        return true;
+    }
+}
@@ -1,7 +1,9 @@
 package ru.practicum.events.repository;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.util.enam.EventState;
@@ -23,7 +25,6 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     @Query("SELECT e " +
             "FROM Event AS e " +
             "LEFT join fetch e.initiator i " +
-            "LEFT join fetch e.category " +
             "where i.id = :userId"
     )
     List<Event> findAllWithInitiatorByInitiatorId(Long userId, Pagination paginationSetup);
@@ -31,7 +32,6 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     @Query("SELECT e " +
             "FROM Event AS e " +
             "JOIN FETCH e.initiator " +
-            "JOIN FETCH e.category " +
             "WHERE e.eventDate > :rangeStart " +
             "AND (e.category.id IN :categories OR :categories IS NULL) " +
             "AND (e.initiator.id IN :users OR :users IS NULL) " +
@@ -44,35 +44,111 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             "SELECT e " +
                     "FROM Event e " +
                     "JOIN FETCH e.initiator i " +
-                    "JOIN FETCH e.category c " +
                     "WHERE e.state = :state " +
                     "AND (e.category.id IN :categories OR :categories IS NULL) " +
                     "AND e.eventDate > :rangeStart " +
+                    "AND (:rangeEnd IS NULL OR e.eventDate < :rangeEnd) " +
                     "AND (e.paid = :paid OR :paid IS NULL) " +
+                    "AND (:onlyAvailable = false OR e.participantLimit = 0 " +
+                    "OR e.participantLimit > e.confirmedRequests) " +
                     "AND (:text IS NULL OR " +
                     "(UPPER(e.annotation) LIKE UPPER(CONCAT('%', :text, '%'))) " +
                     "OR (UPPER(e.description) LIKE UPPER(CONCAT('%', :text, '%'))) " +
                     "OR (UPPER(e.title) LIKE UPPER(CONCAT('%', :text, '%'))))"
     )
-    List<Event> findAllPublishStateAvailable(EventState state, LocalDateTime rangeStart, List<Long> categories,
-                                             Boolean paid, String text, Pagination pageable);
+    List<Event> findAllPublic(EventState state, LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                              List<Long> categories, Boolean paid, boolean onlyAvailable, String text,
+                              Pagination pageable);
+
+    @Query(
+            "SELECT e " +
+                    "FROM Event e " +
+                    "JOIN FETCH e.initiator i " +
+                    "WHERE e.state = :state " +
+                    "AND (e.category.id IN :categories OR :categories IS NULL) " +
+                    "AND e.eventDate > :rangeStart " +
+                    "AND (:rangeEnd IS NULL OR e.eventDate < :rangeEnd) " +
+                    "AND (e.paid = :paid OR :paid IS NULL) " +
+                    "AND (:onlyAvailable = false OR e.participantLimit = 0 " +
+                    "OR e.participantLimit > e.confirmedRequests) " +
+                    "AND (:text IS NULL OR " +
+                    "(UPPER(e.annotation) LIKE UPPER(CONCAT('%', :text, '%'))) " +
+                    "OR (UPPER(e.description) LIKE UPPER(CONCAT('%', :text, '%'))) " +
+                    "OR (UPPER(e.title) LIKE UPPER(CONCAT('%', :text, '%')))) " +
+                    "AND (e.eventDate > :afterDate OR (e.eventDate = :afterDate AND e.id > :afterId)) " +
+                    "ORDER BY e.eventDate, e.id"
+    )
+    List<Event> findAllPublicAfter(EventState state, LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                   List<Long> categories, Boolean paid, boolean onlyAvailable, String text,
+                                   LocalDateTime afterDate, Long afterId, Pageable pageable);
+
+    @Query(
+            "SELECT e " +
+                    "FROM Event e " +
+                    "JOIN FETCH e.initiator i " +
+                    "WHERE e.state = :state " +
+                    "AND (e.category.id IN :categories OR :categories IS NULL) " +
+                    "AND e.eventDate > :rangeStart " +
+                    "AND (:rangeEnd IS NULL OR e.eventDate < :rangeEnd) " +
+                    "AND (e.paid = :paid OR :paid IS NULL) " +
+                    "AND (:onlyAvailable = false OR e.participantLimit = 0 " +
+                    "OR e.participantLimit > e.confirmedRequests) " +
+                    "AND ((UPPER(e.annotation) LIKE UPPER(CONCAT('%', :text, '%'))) " +
+                    "OR (UPPER(e.description) LIKE UPPER(CONCAT('%', :text, '%'))) " +
+                    "OR (UPPER(e.title) LIKE UPPER(CONCAT('%', :text, '%')))) " +
+                    "ORDER BY CASE " +
+                    "WHEN UPPER(e.title) LIKE UPPER(CONCAT('%', :text, '%')) THEN 3 " +
+                    "WHEN UPPER(e.annotation) LIKE UPPER(CONCAT('%', :text, '%')) THEN 2 " +
+                    "ELSE 1 END DESC, e.id"
+    )
+    List<Event> findAllPublishStateByTextOrderByRelevance(EventState state, LocalDateTime rangeStart,
+                                                          LocalDateTime rangeEnd, List<Long> categories,
+                                                          Boolean paid, boolean onlyAvailable, String text,
+                                                          Pagination pageable);
 
     @Query("SELECT e " +
             "FROM Event AS e " +
             "JOIN FETCH e.initiator " +
-            "JOIN FETCH e.category " +
-            "WHERE e.state = :state " +
-            "AND (e.category.id IN :categories OR :categories IS NULL) " +
-            "AND e.eventDate > :rangeStart " +
-            "AND (:paid IS NULL OR e.paid = :paid) " +
-            "AND (:text IS NULL OR UPPER(e.annotation) LIKE UPPER(:searchPattern)) " +
-            "OR (:text IS NULL OR UPPER(e.description) LIKE UPPER(:searchPattern))"
-    )
-    List<Event> findAllPublishStateNotAvailable(EventState state, LocalDateTime rangeStart, List<Long> categories,
-                                                Boolean paid, String text, Pagination pageable);
+            "WHERE e.id IN :ids")
+    List<Event> findAllWithInitiatorByIdIn(Collection<Long> ids);
+
+    @Query("SELECT e.id FROM Event e WHERE e.state = :state AND e.id > :afterId ORDER BY e.id")
+    List<Long> findIdsByStateAfter(EventState state, Long afterId, Pageable pageable);
+
+    @Query("SELECT e " +
+            "FROM Compilation c " +
+            "JOIN c.events e " +
+            "JOIN FETCH e.initiator " +
+            "WHERE c.id = :compId " +
+            "ORDER BY e.id")
+    List<Event> findAllByCompilationId(Long compId, Pageable pageable);
+
+    @Query("SELECT e " +
+            "FROM Compilation c " +
+            "JOIN c.events e " +
+            "JOIN FETCH e.initiator " +
+            "WHERE c.id = :compId " +
+            "AND e.id > :afterId " +
+            "ORDER BY e.id")
+    List<Event> findAllByCompilationIdAfter(Long compId, Long afterId, Pageable pageable);
 
     @Query("SELECT MIN(e.publishedOn) FROM Event e WHERE e.id IN :eventsId")
     Optional<LocalDateTime> getStart(@Param("eventsId") Collection<Long> eventsId);
 
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests + :seats " +
+            "WHERE e.id = :eventId " +
+            "AND (e.participantLimit = 0 OR e.confirmedRequests + :seats <= e.participantLimit)")
+    int takeSeats(Long eventId, long seats);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests - :seats " +
+            "WHERE e.id = :eventId " +
+            "AND e.confirmedRequests >= :seats")
+    int releaseSeats(Long eventId, long seats);
+
+    @Query("SELECT e.confirmedRequests FROM Event e WHERE e.id = :eventId")
+    Optional<Long> findConfirmedRequestsById(Long eventId);
+
 
 }
\ No newline at end of file
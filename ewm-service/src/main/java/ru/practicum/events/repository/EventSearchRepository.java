@@ -0,0 +1,79 @@
+package ru.practicum.events.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.util.PageCursor;
+import ru.practicum.util.Pagination;
+import ru.practicum.util.enam.EventState;
+import ru.practicum.util.enam.EventsSort;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class EventSearchRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public static String toTsQuery(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    public List<Long> searchIds(EventState state, String tsQuery, LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                List<Long> categories, Boolean paid, boolean onlyAvailable, PageCursor cursor,
+                                EventsSort sort, Pagination pageable) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("state", state.name())
+                .addValue("query", tsQuery)
+                .addValue("rangeStart", Timestamp.valueOf(rangeStart))
+                .addValue("limit", pageable.getPageSize())
+                .addValue("offset", pageable.getOffset());
+
+        StringBuilder sql = new StringBuilder("SELECT e.id FROM events e " +
+                "WHERE e.state = :state " +
+                "AND e.event_date > :rangeStart " +
+                "AND e.search_vector @@ to_tsquery('simple', :query)");
+        if (rangeEnd != null) {
+            sql.append(" AND e.event_date < :rangeEnd");
+            params.addValue("rangeEnd", Timestamp.valueOf(rangeEnd));
+        }
+        if (categories != null) {
+            sql.append(" AND e.category_id IN (:categories)");
+            params.addValue("categories", categories);
+        }
+        if (paid != null) {
+            sql.append(" AND e.paid = :paid");
+            params.addValue("paid", paid);
+        }
+        if (onlyAvailable) {
+            sql.append(" AND (e.participant_limit = 0 OR e.participant_limit > e.confirmed_requests)");
+        }
+        if (cursor != null) {
+            sql.append(" AND (e.event_date, e.id) > (:afterDate, :afterId)");
+            params.addValue("afterDate", Timestamp.valueOf(cursor.getDate()));
+            params.addValue("afterId", cursor.getId());
+        }
+
+        if (sort == EventsSort.RELEVANCE) {
+            sql.append(" ORDER BY ts_rank(e.search_vector, to_tsquery('simple', :query)) DESC, e.id");
+        } else if (sort == EventsSort.EVENT_DATE) {
+            sql.append(" ORDER BY e.event_date, e.id");
+        } else if (sort == EventsSort.VIEWS) {
+            sql.append(" ORDER BY e.views DESC, e.id");
+        } else {
+            sql.append(" ORDER BY e.id");
+        }
+        sql.append(" LIMIT :limit OFFSET :offset");
+
+        return jdbcTemplate.queryForList(sql.toString(), params, Long.class);
+    }
+}
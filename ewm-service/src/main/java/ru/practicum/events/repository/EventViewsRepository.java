@@ -0,0 +1,29 @@
+package ru.practicum.events.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class EventViewsRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public int updateViews(Map<Long, Long> views) {
+        MapSqlParameterSource[] batch = views.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("id", entry.getKey())
+                        .addValue("views", entry.getValue()))
+                .toArray(MapSqlParameterSource[]::new);
+        int[] updated = jdbcTemplate.batchUpdate("UPDATE events SET views = :views " +
+                "WHERE id = :id AND views <> :views", batch);
+        return Arrays.stream(updated).map(count -> Math.max(count, 0)).sum();
+    }
+}
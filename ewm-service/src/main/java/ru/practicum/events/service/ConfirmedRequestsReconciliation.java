@@ -0,0 +1,36 @@
+package ru.practicum.events.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.events.repository.EventConfirmedRequestsRepository;
+import ru.practicum.requests.service.ParticipantAdmission;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConfirmedRequestsReconciliation {
+
+    private final EventConfirmedRequestsRepository eventConfirmedRequestsRepository;
+    private final ParticipantAdmission participantAdmission;
+
+    @Scheduled(fixedDelayString = "${events.confirmed-requests.reconcile-interval-ms}")
+    public void reconcile() {
+        int fixed = 0;
+        for (Long eventId : eventConfirmedRequestsRepository.findDriftedIds()) {
+            try {
+                if (eventConfirmedRequestsRepository.reconcile(eventId)) {
+                    fixed++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to reconcile confirmed requests counter of event with id = {}: {}", eventId,
+                        e.getMessage());
+            }
+        }
+        if (fixed > 0) {
+            log.warn("Reconciled confirmed requests counter for {} events", fixed);
+        }
+        participantAdmission.reseed();
+    }
+}
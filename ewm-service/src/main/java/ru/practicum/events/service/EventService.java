@@ -1,6 +1,7 @@
 package ru.practicum.events.service;
 
 import ru.practicum.util.enam.EventState;
+import ru.practicum.util.PageCursor;
 import ru.practicum.util.enam.EventsSort;
 import ru.practicum.events.dto.EventFullDto;
 import ru.practicum.events.dto.EventShortDto;
@@ -27,8 +28,8 @@ public interface EventService {
     EventFullDto updateEventByIdPrivate(Long userId, Long eventId, EventUpdatedDto eventDto);
 
     List<EventShortDto> getEventsPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
-                                        LocalDateTime rangeEnd, Boolean onlyAvailable, EventsSort sort, Integer from,
-                                        Integer size, HttpServletRequest request);
+                                        LocalDateTime rangeEnd, Boolean onlyAvailable, EventsSort sort,
+                                        PageCursor cursor, Integer from, Integer size, HttpServletRequest request);
 
     EventFullDto getEventByIdPublic(Long id, HttpServletRequest request);
 }
\ No newline at end of file
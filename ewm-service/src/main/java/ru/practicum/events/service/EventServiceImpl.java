@@ -11,22 +11,23 @@ import org.springframework.transaction.annotation.Transactional;
 
 import ru.practicum.comments.dto.CommentCountDto;
 import ru.practicum.comments.repository.CommentRepository;
-import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.compilations.service.CompilationCache;
 import ru.practicum.locations.model.Location;
 import ru.practicum.locations.repository.LocationRepository;
-import ru.practicum.requests.model.ParticipationRequest;
-import ru.practicum.requests.repository.RequestRepository;
-import ru.practicum.util.enam.EventRequestStatus;
 import ru.practicum.util.enam.EventState;
 import ru.practicum.util.enam.EventsSort;
+import ru.practicum.util.PageCursor;
 import ru.practicum.util.Pagination;
 import ru.practicum.StatsClient;
 import ru.practicum.category.model.Category;
+import ru.practicum.category.dto.CategoryDto;
 import ru.practicum.category.repository.CategoryRepository;
+import ru.practicum.category.service.CategorySnapshot;
 import ru.practicum.util.enam.EventStateAction;
 import ru.practicum.events.dto.*;
 import ru.practicum.events.model.Event;
 import ru.practicum.events.repository.EventRepository;
+import ru.practicum.events.repository.EventSearchRepository;
 import ru.practicum.handler.NotFoundException;
 import ru.practicum.handler.ValidateException;
 import ru.practicum.handler.ValidateDateException;
@@ -36,6 +37,7 @@ import ru.practicum.users.repository.UserRepository;
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -43,6 +45,7 @@ import static ru.practicum.events.dto.EventMapper.*;
 import static ru.practicum.events.dto.EventMapper.mapToEventFullDtoWithComments;
 import static ru.practicum.locations.dto.LocationMapper.mapToLocation;
 import static ru.practicum.util.enam.EventsSort.EVENT_DATE;
+import static ru.practicum.util.enam.EventsSort.RELEVANCE;
 import static ru.practicum.util.enam.EventsSort.VIEWS;
 import static ru.practicum.util.Constants.*;
 import static ru.practicum.util.enam.EventState.*;
@@ -56,13 +59,19 @@ public class EventServiceImpl implements EventService {
     @Value("${app}")
     private String app;
 
+    @Value("${events.search.full-text.enabled}")
+    private boolean fullTextSearchEnabled;
+
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final RequestRepository requestRepository;
     private final StatsClient statsClient;
     private final LocationRepository locationRepository;
     private final CommentRepository commentRepository;
+    private final EventViewsCache eventViewsCache;
+    private final EventSearchRepository eventSearchRepository;
+    private final CategorySnapshot categorySnapshot;
+    private final CompilationCache compilationCache;
 
     @Override
     public List<EventFullDto> getAllEventsAdmin(List<Long> users,
@@ -77,7 +86,6 @@ public class EventServiceImpl implements EventService {
         PageRequest pageable = new Pagination(from, size, Sort.unsorted());
         List<Event> events = eventRepository.findAllForAdmin(users, states, categories, getRangeStart(rangeStart),
                 pageable);
-        confirmedRequestForListEvent(events);
 
         log.info("Got all events in admin {} from {}, size {}", events, from, size);
         return getEventsFullDtoWithComments(events);
@@ -89,10 +97,11 @@ public class EventServiceImpl implements EventService {
         updateEventAdmin(event, eventUpdatedDto);
         event = eventRepository.save(event);
         locationRepository.save(event.getLocation());
+        compilationCache.evictByEvent(eventId);
 
         Long comments = getComments(eventId);
         log.info("Updated event with id = {} in admin part", eventId);
-        return mapToEventFullDtoWithComments(event, comments);
+        return mapToEventFullDtoWithComments(event, category(event), comments);
     }
 
 
@@ -105,7 +114,6 @@ public class EventServiceImpl implements EventService {
         Location savedLocation = locationRepository
                 .save(mapToLocation(newEventDto.getLocation()));
         Event event = eventRepository.save(mapToNewEvent(newEventDto, savedLocation, user, category));
-        confirmedRequestsForOneEvent(event);
         log.info("Event {} was created by User with id = {} in admin part", event, userId);
         return mapToEventFullDto(event);
     }
@@ -116,7 +124,6 @@ public class EventServiceImpl implements EventService {
         log.info("Got all events of user with id = {} in private part from {}, size {}", userId, from, size);
         List<Event> events = eventRepository.findAllWithInitiatorByInitiatorId(userId, new Pagination(from, size,
                 Sort.unsorted()));
-        confirmedRequestForListEvent(events);
         return getEventShortDtoWithComments(events);
 
     }
@@ -125,10 +132,9 @@ public class EventServiceImpl implements EventService {
     @Override
     public EventFullDto getEventByIdPrivate(Long userId, Long eventId) {
         Event event = getEventByIdAndInitiatorId(eventId, userId);
-        confirmedRequestsForOneEvent(event);
         Long comments = getComments(eventId);
         log.info("Got event with id = {} of user with id = {} in private part", eventId, userId);
-        return mapToEventFullDtoWithComments(event, comments);
+        return mapToEventFullDtoWithComments(event, category(event), comments);
     }
 
     @Override
@@ -140,9 +146,10 @@ public class EventServiceImpl implements EventService {
         updateEvent(event, eventUpdatedDto);
         Event eventSaved = eventRepository.save(event);
         locationRepository.save(eventSaved.getLocation());
+        compilationCache.evictByEvent(eventId);
         Long comments = getComments(eventId);
         log.info("Updated event {} with id = {} of user with id = {} in private part", event, eventId, userId);
-        return mapToEventFullDtoWithComments(eventSaved, comments);
+        return mapToEventFullDtoWithComments(eventSaved, category(eventSaved), comments);
     }
 
     public List<EventShortDto> getEventsPublic(String text,
@@ -152,6 +159,7 @@ public class EventServiceImpl implements EventService {
                                                LocalDateTime rangeEnd,
                                                Boolean onlyAvailable,
                                                EventsSort sort,
+                                               PageCursor cursor,
                                                Integer from,
                                                Integer size,
                                                HttpServletRequest request) {
@@ -161,58 +169,61 @@ public class EventServiceImpl implements EventService {
         final EventState state = PUBLISHED;
         List<Event> events;
 
+        int offset = cursor == null ? from : 0;
         if (sort.equals(EVENT_DATE)) {
-            pageable = new Pagination(from, size, Sort.by("eventDate"));
+            pageable = new Pagination(offset, size, Sort.by("eventDate", "id"));
+        } else if (sort.equals(VIEWS)) {
+            pageable = new Pagination(offset, size, Sort.by(Sort.Order.desc("views"), Sort.Order.asc("id")));
         } else {
-            pageable = new Pagination(from, size, Sort.unsorted());
+            pageable = new Pagination(offset, size, Sort.unsorted());
         }
 
-        if (onlyAvailable) {
-            events = eventRepository.findAllPublishStateNotAvailable(state, getRangeStart(rangeStart), categories,
-                    paid, text, pageable);
+        String tsQuery = text != null ? EventSearchRepository.toTsQuery(text) : "";
+        if (fullTextSearchEnabled && !tsQuery.isEmpty()) {
+            List<Long> ids = eventSearchRepository.searchIds(state, tsQuery, getRangeStart(rangeStart), rangeEnd,
+                    categories, paid, onlyAvailable, cursor, sort, pageable);
+            Map<Long, Event> found = eventRepository.findAllWithInitiatorByIdIn(ids).stream()
+                    .collect(Collectors.toMap(Event::getId, Function.identity()));
+            events = ids.stream()
+                    .map(found::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        } else if (text != null && sort.equals(RELEVANCE)) {
+            events = eventRepository.findAllPublishStateByTextOrderByRelevance(state, getRangeStart(rangeStart),
+                    rangeEnd, categories, paid, onlyAvailable, text, pageable);
+        } else if (cursor != null) {
+            events = eventRepository.findAllPublicAfter(state, getRangeStart(rangeStart), rangeEnd, categories, paid,
+                    onlyAvailable, text, cursor.getDate(), cursor.getId(), PageRequest.of(0, size));
         } else {
-            events = eventRepository.findAllPublishStateAvailable(state, getRangeStart(rangeStart), categories,
-                    paid, text, pageable);
-        }
-
-        if (rangeEnd != null) {
-            events = getEventsBeforeRangeEnd(events, rangeEnd);
+            events = eventRepository.findAllPublic(state, getRangeStart(rangeStart), rangeEnd, categories, paid,
+                    onlyAvailable, text, pageable);
         }
 
-        confirmedRequestForListEvent(events);
+        CompletableFuture<Map<Long, Long>> views = eventViewsCache.getViewsAsync(events.stream()
+                .map(Event::getId)
+                .collect(Collectors.toList())).toFuture();
         List<EventShortDto> result = events.stream()
-                .map(EventMapper::mapToEventShortDto)
+                .map(event -> mapToEventShortDto(event, category(event)))
                 .collect(Collectors.toList());
 
-        saveViewInEvent(result, rangeStart);
+        saveViewInEvent(result, views.join());
         statsClient.saveStats(app, request.getRequestURI(), request.getRemoteAddr(), LocalDateTime.now());
 
-        if (sort.equals(VIEWS)) {
-            return result.stream()
-                    .sorted(Comparator.comparingLong(EventShortDto::getViews))
-                    .collect(Collectors.toList());
-        }
-
         log.info("Got all events with text {}, category {}, from {}, size {}", text, categories, from, size);
         return result;
     }
 
     @Override
     public EventFullDto getEventByIdPublic(Long id, HttpServletRequest request) {
+        CompletableFuture<Long> views = eventViewsCache.getViewsAsync(id).toFuture();
         Event event = getEventById(id);
-        confirmedRequestsForOneEvent(event);
         if (!event.getState().equals(PUBLISHED)) {
             throw new NotFoundException("Event with id = " + id + " wasn't not published");
         }
         Long comments = getComments(id);
-        EventFullDto fullDto = mapToEventFullDtoWithComments(event, comments);
+        EventFullDto fullDto = mapToEventFullDtoWithComments(event, category(event), comments);
 
-        List<String> uris = List.of("/events/" + event.getId());
-        List<ViewStatsDto> views = statsClient.getStats(START_DATE, END_DATE, uris, null).getBody();
-
-        if (views != null) {
-            fullDto.setViews(views.size());
-        }
+        fullDto.setViews(views.join());
         statsClient.saveStats(app, request.getRequestURI(), request.getRemoteAddr(), LocalDateTime.now());
 
         log.info("Got event with  id = {} in public part}", id);
@@ -234,7 +245,7 @@ public class EventServiceImpl implements EventService {
         return eventsMap.values().stream()
                 .map(event -> {
                     long commentCount = commentCounts.getOrDefault(event.getId(), 0L);
-                    return mapToEventFullDtoWithComments(event, commentCount);
+                    return mapToEventFullDtoWithComments(event, category(event), commentCount);
                 })
                 .collect(Collectors.toList());
     }
@@ -249,7 +260,7 @@ public class EventServiceImpl implements EventService {
         return eventsMap.values().stream()
                 .map(event -> {
                     long commentCount = commentCounts.getOrDefault(event.getId(), 0L);
-                    return mapToEventShortDtoWithComments(event, commentCount);
+                    return mapToEventShortDtoWithComments(event, category(event), commentCount);
                 })
                 .collect(Collectors.toList());
     }
@@ -259,6 +270,10 @@ public class EventServiceImpl implements EventService {
                 .orElseThrow(() -> new NotFoundException("Event with id = " + eventId + " wasn't found"));
     }
 
+    private CategoryDto category(Event event) {
+        return categorySnapshot.toCategoryDto(event.getCategory());
+    }
+
     private Category getCategoryForEvent(Long id) {
         return categoryRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Category with id = " + id + " wasn't found"));
@@ -349,32 +364,9 @@ public class EventServiceImpl implements EventService {
         }
     }
 
-    private Long getId(String url) {
-        String[] uri = url.split("/");
-        return Long.valueOf(uri[uri.length - 1]);
-    }
-
-    private void saveViewInEvent(List<EventShortDto> result, LocalDateTime rangeStart) {
-        List<String> uris = result.stream()
-                .map(eventShortDto -> "/events/" + eventShortDto.getId())
-                .collect(Collectors.toList());
-
-        if (rangeStart != null) {
-            List<ViewStatsDto> views = statsClient.getStats(
-                    rangeStart.format(START_DATE_FORMATTER), LocalDateTime.now().format(START_DATE_FORMATTER),
-                    uris, true).getBody();
-
-            if (views != null) {
-                Map<Long, Long> mapIdHits = views.stream()
-                        .collect(Collectors.toMap(viewStats -> getId(viewStats.getUri()), ViewStatsDto::getHits));
-
-                result.forEach(eventShortDto -> {
-                    Long eventId = eventShortDto.getId();
-                    Long viewsCount = mapIdHits.getOrDefault(eventId, 0L);
-                    eventShortDto.setViews(viewsCount);
-                });
-            }
-        }
+    private void saveViewInEvent(List<EventShortDto> result, Map<Long, Long> views) {
+        result.forEach(eventShortDto ->
+                eventShortDto.setViews(views.getOrDefault(eventShortDto.getId(), 0L)));
     }
 
     private void validateEventDate(LocalDateTime eventDate) {
@@ -390,24 +382,4 @@ public class EventServiceImpl implements EventService {
         }
         return rangeStart;
     }
-
-    private List<Event> getEventsBeforeRangeEnd(List<Event> events, LocalDateTime rangeEnd) {
-        return events.stream().filter(event -> event.getEventDate().isBefore(rangeEnd)).collect(Collectors.toList());
-    }
-
-    public void confirmedRequestsForOneEvent(Event event) {
-        event.setConfirmedRequests(requestRepository
-                .countRequestByEventIdAndStatus(event.getId(), EventRequestStatus.CONFIRMED));
-    }
-
-    public void confirmedRequestForListEvent(List<Event> events) {
-        Map<Event, Long> requestsPerEvent = requestRepository.findAllByEventInAndStatus(events, EventRequestStatus.CONFIRMED)
-                .stream()
-                .collect(Collectors.groupingBy(ParticipationRequest::getEvent, Collectors.counting()));
-        if (!requestsPerEvent.isEmpty()) {
-            for (Event event : events) {
-                event.setConfirmedRequests(requestsPerEvent.getOrDefault(event, 0L));
-            }
-        }
-    }
-}
\ No newline at end of file
+}
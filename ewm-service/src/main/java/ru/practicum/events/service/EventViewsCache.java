@@ -0,0 +1,178 @@
+package ru.practicum.events.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.StatsClient;
+import ru.practicum.dto.ViewStatsDto;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Views of events, kept for a while after they are read from the stats service. Entries older than
+ * events.views.cache.refresh-after-ms are served as they are and reloaded in the background, so a slow stats
+ * service only ever delays events that have never been seen; those are loaded once, without retries, within
+ * events.views.cache.load-timeout-ms. Entries older than events.views.cache.expire-after-ms are counted as stale.
+ * Views are asked for in chunks of the stats service's limit on URIs per request.
+ */
+@Component
+@Slf4j
+public class EventViewsCache {
+
+    private static final String EVENT_URI_PREFIX = "/events/";
+    private static final int URIS_PER_REQUEST = 100;
+
+    private final StatsClient statsClient;
+    private final int maxSize;
+    private final long refreshAfterMs;
+    private final long expireAfterMs;
+    private final Duration loadTimeout;
+    private final Map<Long, CachedViews> entries;
+    private final Set<Long> refreshing = new HashSet<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleServed;
+
+    public EventViewsCache(StatsClient statsClient,
+                           @Value("${events.views.cache.max-size}") int maxSize,
+                           @Value("${events.views.cache.refresh-after-ms}") long refreshAfterMs,
+                           @Value("${events.views.cache.expire-after-ms}") long expireAfterMs,
+                           @Value("${events.views.cache.load-timeout-ms}") long loadTimeoutMs,
+                           MeterRegistry meterRegistry) {
+        this.statsClient = statsClient;
+        this.maxSize = maxSize;
+        this.refreshAfterMs = refreshAfterMs;
+        this.expireAfterMs = expireAfterMs;
+        this.loadTimeout = Duration.ofMillis(loadTimeoutMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedViews> eldest) {
+                return size() > EventViewsCache.this.maxSize;
+            }
+        };
+        this.hits = meterRegistry.counter("events.views.cache", "result", "hit");
+        this.misses = meterRegistry.counter("events.views.cache", "result", "miss");
+        this.staleServed = meterRegistry.counter("events.views.cache", "result", "stale");
+        meterRegistry.gauge("events.views.cache.size", this, EventViewsCache::size);
+    }
+
+    public long getViews(Long eventId) {
+        return getViews(List.of(eventId)).getOrDefault(eventId, 0L);
+    }
+
+    public Map<Long, Long> getViews(Collection<Long> eventIds) {
+        return getViewsAsync(eventIds).block();
+    }
+
+    public Mono<Long> getViewsAsync(Long eventId) {
+        return getViewsAsync(List.of(eventId)).map(views -> views.getOrDefault(eventId, 0L));
+    }
+
+    public Mono<Map<Long, Long>> getViewsAsync(Collection<Long> eventIds) {
+        long now = System.currentTimeMillis();
+        Map<Long, Long> views = new HashMap<>();
+        List<Long> toLoad = new ArrayList<>();
+        List<Long> toRefresh = new ArrayList<>();
+
+        synchronized (this) {
+            for (Long eventId : eventIds) {
+                CachedViews entry = entries.get(eventId);
+                if (entry == null) {
+                    misses.increment();
+                    toLoad.add(eventId);
+                    continue;
+                }
+                if (now - entry.loadedAt >= expireAfterMs) {
+                    staleServed.increment();
+                } else {
+                    hits.increment();
+                }
+                views.put(eventId, entry.views);
+                if (now - entry.loadedAt >= refreshAfterMs && refreshing.add(eventId)) {
+                    toRefresh.add(eventId);
+                }
+            }
+        }
+
+        if (!toRefresh.isEmpty()) {
+            Flux.fromIterable(chunks(toRefresh))
+                    .flatMap(chunk -> load(statsClient.getTotalStatsAsync(toUris(chunk), true), chunk)
+                            .doOnError(e -> log.warn("Failed to refresh views for events {}: {}", chunk,
+                                    e.getMessage()))
+                            .onErrorResume(e -> Mono.empty()))
+                    .doFinally(signal -> finishRefresh(toRefresh))
+                    .subscribe();
+        }
+        if (toLoad.isEmpty()) {
+            return Mono.just(views);
+        }
+        return Flux.fromIterable(chunks(toLoad))
+                .flatMap(chunk -> load(statsClient.getTotalStatsAsync(toUris(chunk), true, loadTimeout), chunk)
+                        .onErrorResume(e -> {
+                            log.warn("Failed to load views for events {}: {}", chunk, e.getMessage());
+                            return Mono.just(Map.of());
+                        }))
+                .collectList()
+                .map(loaded -> {
+                    loaded.forEach(views::putAll);
+                    return views;
+                });
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void finishRefresh(List<Long> eventIds) {
+        eventIds.forEach(refreshing::remove);
+    }
+
+    private List<List<Long>> chunks(List<Long> eventIds) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < eventIds.size(); i += URIS_PER_REQUEST) {
+            chunks.add(eventIds.subList(i, Math.min(i + URIS_PER_REQUEST, eventIds.size())));
+        }
+        return chunks;
+    }
+
+    private List<String> toUris(List<Long> eventIds) {
+        return eventIds.stream()
+                .map(eventId -> EVENT_URI_PREFIX + eventId)
+                .collect(Collectors.toList());
+    }
+
+    private Mono<Map<Long, Long>> load(Flux<ViewStatsDto> totalStats, List<Long> eventIds) {
+        return totalStats
+                .collectList()
+                .map(stats -> {
+                    Map<Long, Long> loaded = new HashMap<>();
+                    eventIds.forEach(eventId -> loaded.put(eventId, 0L));
+                    stats.forEach(viewStats ->
+                            loaded.merge(getEventId(viewStats.getUri()), viewStats.getHits(), Long::sum));
+                    store(loaded);
+                    return loaded;
+                });
+    }
+
+    private synchronized void store(Map<Long, Long> loaded) {
+        long loadedAt = System.currentTimeMillis();
+        loaded.forEach((eventId, views) -> entries.put(eventId, new CachedViews(views, loadedAt)));
+    }
+
+    private Long getEventId(String uri) {
+        return Long.valueOf(uri.substring(uri.lastIndexOf('/') + 1));
+    }
+
+    @AllArgsConstructor
+    private static class CachedViews {
+        private final long views;
+        private final long loadedAt;
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.events.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.StatsClient;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.events.repository.EventRepository;
+import ru.practicum.events.repository.EventViewsRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static ru.practicum.util.Constants.START_DATE_FORMATTER;
+import static ru.practicum.util.enam.EventState.PUBLISHED;
+
+/**
+ * Keeps the indexed events.views column in step with the stats server, so sort=VIEWS is an ordered query.
+ * The first run backfills every published event; later runs only recount events that got hits since the
+ * previous run (minus a lag that covers buffered hits arriving late).
+ */
+@Component
+@Slf4j
+public class EventViewsSync {
+
+    private static final String EVENT_URI_PREFIX = "/events/";
+    private static final int URIS_PER_REQUEST = 100;
+
+    private final StatsClient statsClient;
+    private final EventRepository eventRepository;
+    private final EventViewsRepository eventViewsRepository;
+    private final long lagMs;
+    private LocalDateTime syncedUntil;
+
+    public EventViewsSync(StatsClient statsClient,
+                          EventRepository eventRepository,
+                          EventViewsRepository eventViewsRepository,
+                          @Value("${events.views.sync.lag-ms}") long lagMs) {
+        this.statsClient = statsClient;
+        this.eventRepository = eventRepository;
+        this.eventViewsRepository = eventViewsRepository;
+        this.lagMs = lagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${events.views.sync.interval-ms}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int updated;
+            if (syncedUntil == null) {
+                updated = backfill();
+            } else {
+                updated = refresh(getViewedSince(syncedUntil.minus(Duration.ofMillis(lagMs)), now));
+            }
+            syncedUntil = now;
+            log.debug("Synced views of {} events", updated);
+        } catch (RuntimeException e) {
+            log.warn("Failed to sync event views: {}", e.getMessage());
+        }
+    }
+
+    private int backfill() {
+        int updated = 0;
+        List<Long> eventIds = eventRepository.findIdsByStateAfter(PUBLISHED, 0L,
+                PageRequest.of(0, URIS_PER_REQUEST));
+        while (!eventIds.isEmpty()) {
+            updated += refresh(eventIds);
+            eventIds = eventRepository.findIdsByStateAfter(PUBLISHED, eventIds.get(eventIds.size() - 1),
+                    PageRequest.of(0, URIS_PER_REQUEST));
+        }
+        return updated;
+    }
+
+    private Set<Long> getViewedSince(LocalDateTime start, LocalDateTime end) {
+        List<ViewStatsDto> stats = statsClient.getStats(start.format(START_DATE_FORMATTER),
+                end.format(START_DATE_FORMATTER), List.of(), false).getBody();
+        return Objects.requireNonNull(stats).stream()
+                .map(ViewStatsDto::getUri)
+                .filter(uri -> uri.startsWith(EVENT_URI_PREFIX)
+                        && uri.substring(EVENT_URI_PREFIX.length()).matches("\\d+"))
+                .map(uri -> Long.valueOf(uri.substring(EVENT_URI_PREFIX.length())))
+                .collect(Collectors.toSet());
+    }
+
+    private int refresh(Collection<Long> eventIds) {
+        int updated = 0;
+        List<Long> ids = new ArrayList<>(eventIds);
+        for (int i = 0; i < ids.size(); i += URIS_PER_REQUEST) {
+            List<Long> chunk = ids.subList(i, Math.min(i + URIS_PER_REQUEST, ids.size()));
+            Map<Long, Long> views = new HashMap<>();
+            chunk.forEach(eventId -> views.put(eventId, 0L));
+            statsClient.getTotalStats(chunk.stream()
+                            .map(eventId -> EVENT_URI_PREFIX + eventId)
+                            .collect(Collectors.toList()), true)
+                    .forEach(viewStats -> views.merge(getEventId(viewStats.getUri()), viewStats.getHits(),
+                            Long::sum));
+            updated += eventViewsRepository.updateViews(views);
+        }
+        return updated;
+    }
+
+    private Long getEventId(String uri) {
+        return Long.valueOf(uri.substring(uri.lastIndexOf('/') + 1));
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import javax.validation.ConstraintViolationException;
+import javax.validation.ValidationException;
 import java.util.Map;
 
 
@@ -56,7 +57,7 @@ public class ErrorHandler {
 
     @ExceptionHandler({MethodArgumentTypeMismatchException.class,
             MissingServletRequestParameterException.class, ValidateDateException.class,
-            MethodArgumentNotValidException.class})
+            MethodArgumentNotValidException.class, ValidationException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, String> handleNotValidException(final RuntimeException e) {
         log.error("Код ошибки: {}, {}", HttpStatus.BAD_REQUEST, e.getMessage());
@@ -1,32 +1,69 @@
 package ru.practicum.requests.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.requests.dto.ParticipationRequestCreateResult;
 import ru.practicum.requests.dto.ParticipationRequestDto;
 import ru.practicum.requests.service.RequestService;
+import ru.practicum.util.Ndjson;
+import ru.practicum.util.PageCursor;
+import ru.practicum.util.enam.EventRequestStatus;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 import java.util.List;
 
+import static ru.practicum.util.Constants.PAGE_DEFAULT_SIZE;
+
 @RestController
 @RequestMapping("/users/{userId}/requests")
 @RequiredArgsConstructor
+@Validated
 @Slf4j
 public class RequestPrivateController {
 
     private final RequestService requestService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public ParticipationRequestDto create(@PathVariable(value = "userId") Long userId,
-                                          @RequestParam(value = "eventId") Long eventId) {
-        return requestService.createParticipationRequest(userId, eventId);
+    public ResponseEntity<ParticipationRequestDto> create(@PathVariable(value = "userId") Long userId,
+                                                          @RequestParam(value = "eventId") Long eventId,
+                                                          @RequestParam(value = "waitlist", defaultValue = "false")
+                                                          boolean waitlist) {
+        ParticipationRequestCreateResult result = requestService.createParticipationRequest(userId, eventId,
+                waitlist);
+        return ResponseEntity.status(result.isCreated() ? HttpStatus.CREATED : HttpStatus.OK)
+                .body(result.getRequest());
     }
 
     @GetMapping
-    public List<ParticipationRequestDto> getParticipationRequest(@PathVariable(value = "userId") Long userId) {
-        return requestService.getParticipationRequestByUserId(userId);
+    public ResponseEntity<List<ParticipationRequestDto>> getParticipationRequest(
+            @PathVariable(value = "userId") Long userId,
+            @RequestParam(required = false) EventRequestStatus status,
+            @RequestParam(required = false) PageCursor cursor,
+            @RequestParam(required = false) @PositiveOrZero Integer from,
+            @RequestParam(required = false) @Positive Integer size) {
+        List<ParticipationRequestDto> requests = requestService.getParticipationRequestByUserId(userId, status,
+                cursor, from, size);
+        if (cursor == null && from == null && size == null) {
+            return ResponseEntity.ok(requests);
+        }
+        return PageCursor.withNextCursor(requests, size != null ? size : Integer.parseInt(PAGE_DEFAULT_SIZE),
+                request -> PageCursor.of(request.getId()));
+    }
+
+    @GetMapping("/stream")
+    public void streamParticipationRequest(@PathVariable(value = "userId") Long userId,
+                                           @RequestParam(required = false) EventRequestStatus status,
+                                           HttpServletResponse response) {
+        requestService.streamParticipationRequestByUserId(userId, status, Ndjson.writer(objectMapper, response));
+        response.setContentType(Ndjson.MEDIA_TYPE);
     }
 
     @PatchMapping("/{requestId}/cancel")
@@ -0,0 +1,15 @@
+package ru.practicum.requests.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ParticipationRequestCreateResult {
+
+    private final ParticipationRequestDto request;
+
+    private final boolean created;
+}
@@ -4,6 +4,10 @@ import lombok.experimental.UtilityClass;
 import ru.practicum.events.model.Event;
 import ru.practicum.requests.model.ParticipationRequest;
 import ru.practicum.users.model.User;
+import ru.practicum.util.enam.EventRequestStatus;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
 import static ru.practicum.util.enam.EventRequestStatus.CONFIRMED;
 
@@ -21,6 +25,16 @@ public class ParticipationRequestMapper {
                 .build();
     }
 
+    public static ParticipationRequestDto mapToParticipationRequestDto(ResultSet rs) throws SQLException {
+        return ParticipationRequestDto.builder()
+                .created(rs.getTimestamp("created_date").toLocalDateTime())
+                .event(rs.getLong("event_id"))
+                .id(rs.getLong("id"))
+                .requester(rs.getLong("requester_id"))
+                .status(EventRequestStatus.valueOf(rs.getString("status")))
+                .build();
+    }
+
     public static ParticipationRequest mapToNewParticipationRequest(Event event, User user) {
         ParticipationRequest request = new ParticipationRequest();
         request.setEvent(event);
@@ -0,0 +1,61 @@
+package ru.practicum.requests.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.requests.dto.ParticipationRequestCreateResult;
+import ru.practicum.util.enam.EventRequestStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static ru.practicum.requests.dto.ParticipationRequestMapper.mapToParticipationRequestDto;
+
+/**
+ * Creates a participation request with one PostgreSQL statement: the event state, initiator and requester checks and
+ * the insert run together. The status is chosen by the caller; the seat of a confirmed request is taken by
+ * {@link ru.practicum.requests.service.ParticipantAdmission} in the same transaction, so the event row isn't locked
+ * here. A repeated request returns the row created the first time; nothing is returned when any check fails.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RequestInsertRepository {
+
+    private static final String INSERT_REQUEST = "WITH existing AS (" +
+            "SELECT r.id, r.event_id, r.requester_id, r.status, r.created_date " +
+            "FROM requests r " +
+            "WHERE r.requester_id = :userId " +
+            "AND r.event_id = :eventId" +
+            "), inserted AS (" +
+            "INSERT INTO requests (event_id, requester_id, status, created_date) " +
+            "SELECT e.id, :userId, :status, :created " +
+            "FROM events e " +
+            "WHERE e.id = :eventId " +
+            "AND e.state = 'PUBLISHED' " +
+            "AND e.initiator_id <> :userId " +
+            "AND EXISTS (SELECT 1 FROM users u WHERE u.id = :userId) " +
+            "AND NOT EXISTS (SELECT 1 FROM existing) " +
+            "ON CONFLICT (requester_id, event_id) DO NOTHING " +
+            "RETURNING id, event_id, requester_id, status, created_date" +
+            ") " +
+            "SELECT i.id, i.event_id, i.requester_id, i.status, i.created_date, TRUE AS created FROM inserted i " +
+            "UNION ALL " +
+            "SELECT x.id, x.event_id, x.requester_id, x.status, x.created_date, FALSE AS created FROM existing x";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public Optional<ParticipationRequestCreateResult> insert(Long userId, Long eventId, EventRequestStatus status,
+                                                             LocalDateTime created) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("eventId", eventId)
+                .addValue("status", status.name())
+                .addValue("created", Timestamp.valueOf(created));
+        return jdbcTemplate.query(INSERT_REQUEST, params, (rs, rowNum) -> new ParticipationRequestCreateResult(
+                        mapToParticipationRequestDto(rs), rs.getBoolean("created")))
+                .stream()
+                .findFirst();
+    }
+}
@@ -1,28 +1,48 @@
 package ru.practicum.requests.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.events.model.Event;
 import ru.practicum.requests.model.ParticipationRequest;
 import ru.practicum.util.enam.EventRequestStatus;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 public interface RequestRepository extends JpaRepository<ParticipationRequest, Long> {
 
-    Boolean existsByRequesterIdAndEventId(Long userId, Long eventId);
+    Optional<ParticipationRequest> findByRequesterIdAndEventId(Long userId, Long eventId);
 
-    List<ParticipationRequest> findAllByEventIdAndIdIn(Long eventId, Set<Long> requestIds);
-
-    List<ParticipationRequest> findAllByRequesterId(Long requesterId);
+    @Query("SELECT r FROM ParticipationRequest r " +
+            "WHERE r.requester.id = :requesterId " +
+            "AND (r.status = :status OR :status IS NULL) " +
+            "AND r.id > :afterId " +
+            "ORDER BY r.id")
+    List<ParticipationRequest> findAllByRequesterIdAfter(Long requesterId, EventRequestStatus status, Long afterId,
+                                                         Pageable pageable);
 
     Optional<ParticipationRequest> findByIdAndRequesterId(Long requestId, Long requesterId);
 
-    List<ParticipationRequest> findAllByEventId(Long eventId);
+    @Query("SELECT r FROM ParticipationRequest r " +
+            "WHERE r.event.id = :eventId " +
+            "AND (r.status = :status OR :status IS NULL) " +
+            "AND r.id > :afterId " +
+            "ORDER BY r.id")
+    List<ParticipationRequest> findAllByEventIdAfter(Long eventId, EventRequestStatus status, Long afterId,
+                                                     Pageable pageable);
 
     Long countRequestByEventIdAndStatus(Long eventId, EventRequestStatus state);
 
     List<ParticipationRequest> findAllByEventInAndStatus(List<Event> event, EventRequestStatus status);
 
+    @Query("SELECT r.id FROM ParticipationRequest r " +
+            "WHERE r.event.id = :eventId " +
+            "AND r.status = :status " +
+            "ORDER BY r.created, r.id")
+    List<Long> findIdsByEventIdAndStatus(Long eventId, EventRequestStatus status, Pageable pageable);
+
+    @Query("SELECT DISTINCT r.event.id FROM ParticipationRequest r WHERE r.status = :status")
+    List<Long> findEventIdsByStatus(EventRequestStatus status);
+
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package ru.practicum.requests.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+import org.springframework.stereotype.Repository;
+import ru.practicum.requests.dto.ParticipationRequestDto;
+import ru.practicum.util.enam.EventRequestStatus;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static ru.practicum.requests.dto.ParticipationRequestMapper.mapToParticipationRequestDto;
+
+@Repository
+@RequiredArgsConstructor
+public class RequestStatusRepository {
+
+    @Value("${requests.status.returning.enabled}")
+    private boolean returningEnabled;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<ParticipationRequestDto> findAllByEventIdAndIdIn(Long eventId, Collection<Long> requestIds) {
+        if (requestIds == null || requestIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT r.id, r.event_id, r.requester_id, r.status, r.created_date " +
+                        "FROM requests r " +
+                        "WHERE r.event_id = :eventId " +
+                        "AND r.id = ANY(:ids) " +
+                        "ORDER BY r.id",
+                new MapSqlParameterSource()
+                        .addValue("eventId", eventId)
+                        .addValue("ids", idArray(requestIds)),
+                (rs, rowNum) -> mapToParticipationRequestDto(rs));
+    }
+
+    public List<Long> updatePendingStatus(Long eventId, Collection<Long> requestIds, EventRequestStatus status) {
+        return updateStatus(eventId, requestIds, EventRequestStatus.PENDING, status);
+    }
+
+    public List<Long> updateStatus(Long eventId, Collection<Long> requestIds, EventRequestStatus from,
+                                   EventRequestStatus to) {
+        if (requestIds.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("eventId", eventId)
+                .addValue("ids", idArray(requestIds))
+                .addValue("from", from.name())
+                .addValue("to", to.name());
+        if (returningEnabled) {
+            return jdbcTemplate.queryForList("UPDATE requests SET status = :to " +
+                    "WHERE event_id = :eventId " +
+                    "AND id = ANY(:ids) " +
+                    "AND status = :from " +
+                    "RETURNING id", params, Long.class);
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM requests " +
+                "WHERE event_id = :eventId " +
+                "AND id = ANY(:ids) " +
+                "AND status = :from " +
+                "ORDER BY id FOR UPDATE", params, Long.class);
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update("UPDATE requests SET status = :to WHERE id = ANY(:ids)",
+                    params.addValue("ids", idArray(ids)));
+        }
+        return ids;
+    }
+
+    /**
+     * Cancels the request of the requester and returns the status it had, or nothing when it was already canceled.
+     * The previous status is read under the row lock, so concurrent cancels see it only once.
+     */
+    public Optional<EventRequestStatus> cancel(Long requestId, Long requesterId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", requestId)
+                .addValue("requesterId", requesterId);
+        if (returningEnabled) {
+            return jdbcTemplate.queryForList("UPDATE requests r SET status = 'CANCELED' " +
+                            "FROM (SELECT id, status FROM requests " +
+                            "WHERE id = :id " +
+                            "AND requester_id = :requesterId " +
+                            "FOR UPDATE) previous " +
+                            "WHERE r.id = previous.id " +
+                            "AND previous.status <> 'CANCELED' " +
+                            "RETURNING previous.status", params, String.class).stream()
+                    .map(EventRequestStatus::valueOf)
+                    .findFirst();
+        }
+
+        Optional<EventRequestStatus> previous = jdbcTemplate.queryForList("SELECT status FROM requests " +
+                        "WHERE id = :id " +
+                        "AND requester_id = :requesterId " +
+                        "FOR UPDATE", params, String.class).stream()
+                .map(EventRequestStatus::valueOf)
+                .filter(status -> status != EventRequestStatus.CANCELED)
+                .findFirst();
+        previous.ifPresent(status -> jdbcTemplate.update("UPDATE requests SET status = 'CANCELED' WHERE id = :id",
+                params));
+        return previous;
+    }
+
+    private static SqlTypeValue idArray(Collection<Long> ids) {
+        return new AbstractSqlTypeValue() {
+            @Override
+            protected Object createTypeValue(Connection connection, int sqlType, String typeName)
+                    throws SQLException {
+                return connection.createArrayOf("bigint", ids.toArray());
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.requests.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.requests.dto.ParticipationRequestDto;
+import ru.practicum.util.enam.EventRequestStatus;
+
+import javax.sql.DataSource;
+import java.util.function.Consumer;
+
+import static ru.practicum.requests.dto.ParticipationRequestMapper.mapToParticipationRequestDto;
+
+/**
+ * Reads participation requests row by row for streaming responses. Rows are fetched through a database
+ * cursor in chunks of requests.stream.fetch-size, which PostgreSQL only does inside a transaction.
+ */
+@Repository
+public class RequestStreamRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public RequestStreamRepository(DataSource dataSource,
+                                   @Value("${requests.stream.fetch-size}") int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    public void streamByEventId(Long eventId, EventRequestStatus status, Consumer<ParticipationRequestDto> consumer) {
+        stream("event_id", eventId, status, consumer);
+    }
+
+    public void streamByRequesterId(Long requesterId, EventRequestStatus status,
+                                    Consumer<ParticipationRequestDto> consumer) {
+        stream("requester_id", requesterId, status, consumer);
+    }
+
+    private void stream(String column, Long id, EventRequestStatus status,
+                        Consumer<ParticipationRequestDto> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("id", id);
+        StringBuilder sql = new StringBuilder("SELECT r.id, r.event_id, r.requester_id, r.status, r.created_date " +
+                "FROM requests r WHERE r." + column + " = :id");
+        if (status != null) {
+            sql.append(" AND r.status = :status");
+            params.addValue("status", status.name());
+        }
+        sql.append(" ORDER BY r.id");
+
+        jdbcTemplate.query(sql.toString(), params, rs -> {
+            consumer.accept(mapToParticipationRequestDto(rs));
+        });
+    }
+}
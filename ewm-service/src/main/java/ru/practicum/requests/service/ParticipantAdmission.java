@@ -0,0 +1,408 @@
+package ru.practicum.requests.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.events.repository.EventRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Admission gate for confirmed participants. Every event has an in-memory count of taken seats, seeded from
+ * events.confirmed_requests, and seats are reserved from it with a compare-and-set before the database is touched,
+ * so requests for a full event are turned away without reaching the event row.
+ * <p>
+ * Reserved seats are then taken in the database by the guarded update of events.confirmed_requests, which keeps the
+ * limit for any number of service instances. Reservations made for one event while its seats are being taken wait
+ * in a queue; the next thread to get through takes them all with one update and runs their work in its transaction,
+ * so a hot event locks its row once per batch instead of once per request. The counts are read from the database
+ * again after requests.admission.reseed-after-ms and on every reconciliation.
+ */
+@Component
+public class ParticipantAdmission {
+
+    private static final long WAIT_MS = 1;
+
+    private final EventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long reseedAfterMs;
+    private final Map<Long, Seats> seats = new ConcurrentHashMap<>();
+    private final Set<Long> freed = ConcurrentHashMap.newKeySet();
+    private final Counter admitted;
+    private final Counter rejected;
+    private final DistributionSummary batchSize;
+
+    public ParticipantAdmission(EventRepository eventRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${requests.admission.reseed-after-ms}") long reseedAfterMs) {
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reseedAfterMs = reseedAfterMs;
+        this.admitted = meterRegistry.counter("requests.admission", "result", "admitted");
+        this.rejected = meterRegistry.counter("requests.admission", "result", "rejected");
+        this.batchSize = meterRegistry.summary("requests.admission.batch.size");
+    }
+
+    /**
+     * Takes up to {@code seats} seats of the event and runs {@code work} with the number taken, in the transaction
+     * that takes them. {@code seatsUsed} tells how many of the seats the work's result used; the rest are given back
+     * before that transaction commits. Returns the work's result, or nothing when no seats could be taken and the
+     * work didn't run.
+     * <p>
+     * The work may run on another thread waiting for the same event, so it must only write through statements that
+     * don't fail on expected outcomes and must not touch rows the caller's transaction has locked. A participant
+     * limit of 0 means the event has no limit.
+     */
+    public <T> Optional<T> admit(Long eventId, int participantLimit, int seats, IntFunction<T> work,
+                                 ToIntFunction<T> seatsUsed) {
+        if (seats <= 0) {
+            return Optional.empty();
+        }
+        while (true) {
+            Seats eventSeats = seats(eventId, participantLimit);
+            int reserved = eventSeats.reserve(seats);
+            if (reserved == 0) {
+                record(seats, 0);
+                return Optional.empty();
+            }
+            Claim<T> claim = new Claim<>(reserved, work, seatsUsed);
+            if (holdsRow(eventId)) {
+                take(eventId, eventSeats, List.of(claim));
+            } else {
+                enqueue(eventId, eventSeats, claim);
+            }
+            if (claim.await()) {
+                record(seats, claim.used);
+                return Optional.ofNullable(claim.result);
+            }
+        }
+    }
+
+    /**
+     * Answers from the in-memory count: {@code true} while the event has seats nobody has taken or reserved.
+     */
+    public boolean hasFreeSeats(Long eventId, int participantLimit) {
+        return participantLimit == 0 || seats(eventId, participantLimit).hasFree();
+    }
+
+    /**
+     * Gives seats of confirmed requests that were just changed in the current transaction back to the event.
+     */
+    public void release(Long eventId, int seats) {
+        if (seats <= 0) {
+            return;
+        }
+        eventRepository.releaseSeats(eventId, seats);
+        holdRow(eventId);
+        afterCommit(() -> {
+            Seats eventSeats = this.seats.get(eventId);
+            if (eventSeats != null) {
+                eventSeats.giveBack(seats);
+            }
+            freed.add(eventId);
+        });
+    }
+
+    /**
+     * Reports the event to the waitlist promotion once the current transaction commits.
+     */
+    public void notifyFreed(Long eventId) {
+        afterCommit(() -> freed.add(eventId));
+    }
+
+    /**
+     * Returns and forgets the events that got seats back since the previous call.
+     */
+    public List<Long> pollFreed() {
+        List<Long> eventIds = new ArrayList<>(freed);
+        freed.removeAll(eventIds);
+        return eventIds;
+    }
+
+    /**
+     * Forgets the in-memory counts, so every event is seeded from the database again on its next request.
+     */
+    public void reseed() {
+        seats.clear();
+    }
+
+    private Seats seats(Long eventId, int participantLimit) {
+        long now = System.currentTimeMillis();
+        Seats current = seats.get(eventId);
+        if (current != null && current.participantLimit == participantLimit
+                && now - current.seededAt < reseedAfterMs) {
+            return current;
+        }
+        Seats seeded = new Seats(participantLimit, now,
+                eventRepository.findConfirmedRequestsById(eventId).orElse(0L));
+        boolean stored = current == null
+                ? seats.putIfAbsent(eventId, seeded) == null
+                : seats.replace(eventId, current, seeded);
+        return stored ? seeded : seats.getOrDefault(eventId, seeded);
+    }
+
+    private void enqueue(Long eventId, Seats eventSeats, Claim<?> claim) {
+        eventSeats.claims.add(claim);
+        while (!claim.taken) {
+            if (eventSeats.taking.compareAndSet(false, true)) {
+                try {
+                    List<Claim<?>> batch = new ArrayList<>();
+                    for (Claim<?> queued = eventSeats.claims.poll(); queued != null;
+                         queued = eventSeats.claims.poll()) {
+                        batch.add(queued);
+                    }
+                    if (!batch.isEmpty()) {
+                        take(eventId, eventSeats, batch);
+                    }
+                } finally {
+                    eventSeats.taking.set(false);
+                }
+            } else {
+                claim.awaitTaken();
+            }
+        }
+    }
+
+    /**
+     * Takes the reserved seats of the batch with one guarded update, runs the work of every claim and gives the
+     * seats nobody used back. Claims of other threads learn the outcome when the transaction completes.
+     */
+    private void take(Long eventId, Seats eventSeats, List<Claim<?>> batch) {
+        batchSize.record(batch.size());
+        batch.forEach(claim -> claim.taken = true);
+        int reserved = batch.stream().mapToInt(claim -> claim.reserved).sum();
+        int[] used = new int[1];
+        boolean[] completed = new boolean[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                onCompletion(committed -> {
+                    if (!committed) {
+                        eventSeats.giveBack(used[0]);
+                    }
+                    batch.forEach(claim -> claim.complete(committed));
+                });
+                completed[0] = TransactionSynchronizationManager.isSynchronizationActive();
+                holdRow(eventId);
+
+                int granted = takeInDatabase(eventId, eventSeats.participantLimit, reserved);
+                if (granted < reserved) {
+                    seats.remove(eventId, eventSeats);
+                }
+                int left = granted;
+                for (Claim<?> claim : batch) {
+                    int claimSeats = Math.min(claim.reserved, left);
+                    left -= claimSeats;
+                    used[0] += claim.run(claimSeats);
+                }
+                if (used[0] < granted) {
+                    eventRepository.releaseSeats(eventId, granted - used[0]);
+                }
+                eventSeats.giveBack(reserved - used[0]);
+            });
+        } catch (RuntimeException e) {
+            if (!completed[0]) {
+                batch.forEach(claim -> claim.complete(false));
+            }
+            throw e;
+        }
+        Thread leader = Thread.currentThread();
+        batch.stream()
+                .filter(claim -> !completed[0] || claim.thread == leader)
+                .forEach(claim -> claim.complete(true));
+    }
+
+    private int takeInDatabase(Long eventId, int participantLimit, int seats) {
+        int granted = seats;
+        while (granted > 0 && eventRepository.takeSeats(eventId, granted) == 0) {
+            long confirmed = eventRepository.findConfirmedRequestsById(eventId).orElse((long) participantLimit);
+            granted = (int) Math.min(granted - 1, Math.max(participantLimit - confirmed, 0));
+        }
+        return granted;
+    }
+
+    private void record(int seats, int used) {
+        admitted.increment(used);
+        rejected.increment(seats - used);
+    }
+
+    /**
+     * Whether the current transaction has already updated the event row, in which case it must not wait for a
+     * batch of another thread that could be blocked on that row.
+     */
+    private boolean holdsRow(Long eventId) {
+        Object held = TransactionSynchronizationManager.getResource(this);
+        return held instanceof Set && ((Set<?>) held).contains(eventId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void holdRow(Long eventId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<Long> held = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (held == null) {
+            held = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, held);
+            onCompletion(committed -> TransactionSynchronizationManager.unbindResourceIfPossible(this));
+        }
+        held.add(eventId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void onCompletion(Completion completion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            completion.run(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                completion.run(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private interface Completion {
+        void run(boolean committed);
+    }
+
+    private static final class Seats {
+
+        private final int participantLimit;
+        private final long seededAt;
+        private final AtomicLong taken;
+        private final Queue<Claim<?>> claims = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean taking = new AtomicBoolean();
+
+        private Seats(int participantLimit, long seededAt, long taken) {
+            this.participantLimit = participantLimit;
+            this.seededAt = seededAt;
+            this.taken = new AtomicLong(taken);
+        }
+
+        private int reserve(int seats) {
+            while (true) {
+                long current = taken.get();
+                int granted = participantLimit == 0
+                        ? seats
+                        : (int) Math.min(seats, Math.max(participantLimit - current, 0));
+                if (granted == 0 || taken.compareAndSet(current, current + granted)) {
+                    return granted;
+                }
+            }
+        }
+
+        private void giveBack(long seats) {
+            if (seats > 0) {
+                taken.addAndGet(-seats);
+            }
+        }
+
+        private boolean hasFree() {
+            return participantLimit == 0 || taken.get() < participantLimit;
+        }
+    }
+
+    /**
+     * Seats reserved by one call, waiting to be taken in the database.
+     */
+    private static final class Claim<T> {
+
+        private final int reserved;
+        private final IntFunction<T> work;
+        private final ToIntFunction<T> seatsUsed;
+        private final Thread thread = Thread.currentThread();
+        private final CountDownLatch completion = new CountDownLatch(1);
+        private volatile boolean taken;
+        private volatile boolean committed;
+        private volatile RuntimeException failure;
+        private volatile T result;
+        private volatile int used;
+
+        private Claim(int reserved, IntFunction<T> work, ToIntFunction<T> seatsUsed) {
+            this.reserved = reserved;
+            this.work = work;
+            this.seatsUsed = seatsUsed;
+        }
+
+        private int run(int seats) {
+            if (seats == 0) {
+                return 0;
+            }
+            try {
+                result = work.apply(seats);
+                used = seatsUsed.applyAsInt(result);
+                return used;
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            }
+        }
+
+        private void awaitTaken() {
+            try {
+                completion.await(WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for event seats", e);
+            }
+        }
+
+        private void complete(boolean committed) {
+            if (completion.getCount() > 0) {
+                this.committed = committed;
+                completion.countDown();
+            }
+        }
+
+        /**
+         * Waits for the transaction that took the seats and tells whether they are kept; rethrows the failure of
+         * this claim's own work.
+         */
+        private boolean await() {
+            try {
+                completion.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for event seats", e);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return committed;
+        }
+    }
+}
@@ -2,20 +2,34 @@ package ru.practicum.requests.service;
 
 import ru.practicum.requests.dto.EventRequestStatusUpdateRequest;
 import ru.practicum.requests.dto.EventRequestStatusUpdateResult;
+import ru.practicum.requests.dto.ParticipationRequestCreateResult;
 import ru.practicum.requests.dto.ParticipationRequestDto;
+import ru.practicum.util.PageCursor;
+import ru.practicum.util.enam.EventRequestStatus;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface RequestService {
-    ParticipationRequestDto createParticipationRequest(Long userId, Long eventId);
+    ParticipationRequestCreateResult createParticipationRequest(Long userId, Long eventId, boolean waitlist);
 
-    List<ParticipationRequestDto> getParticipationRequestByUserId(Long userId);
+    List<ParticipationRequestDto> getParticipationRequestByUserId(Long userId, EventRequestStatus status,
+                                                                  PageCursor cursor, Integer from, Integer size);
+
+    void streamParticipationRequestByUserId(Long userId, EventRequestStatus status,
+                                            Consumer<ParticipationRequestDto> consumer);
 
     ParticipationRequestDto updateStatusParticipationRequest(Long userId, Long requestId);
 
-    List<ParticipationRequestDto> getParticipationRequestPrivate(Long userId, Long eventId);
+    List<ParticipationRequestDto> getParticipationRequestPrivate(Long userId, Long eventId, EventRequestStatus status,
+                                                                 PageCursor cursor, Integer from, Integer size);
+
+    void streamParticipationRequestPrivate(Long userId, Long eventId, EventRequestStatus status,
+                                           Consumer<ParticipationRequestDto> consumer);
 
     EventRequestStatusUpdateResult updateEventRequestStatusPrivate(Long userId, Long eventId,
                                                                    EventRequestStatusUpdateRequest dtoRequest);
 
+    int promoteWaitlist(Long eventId, int batchSize);
+
 }
\ No newline at end of file
@@ -2,6 +2,10 @@ package ru.practicum.requests.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.requests.dto.EventRequestStatusUpdateRequest;
@@ -10,20 +14,32 @@ import ru.practicum.events.model.Event;
 import ru.practicum.events.repository.EventRepository;
 import ru.practicum.handler.ValidateException;
 import ru.practicum.handler.NotFoundException;
+import ru.practicum.requests.dto.ParticipationRequestCreateResult;
 import ru.practicum.requests.dto.ParticipationRequestDto;
 import ru.practicum.requests.dto.ParticipationRequestMapper;
 import ru.practicum.requests.model.ParticipationRequest;
+import ru.practicum.requests.repository.RequestInsertRepository;
 import ru.practicum.requests.repository.RequestRepository;
+import ru.practicum.requests.repository.RequestStatusRepository;
+import ru.practicum.requests.repository.RequestStreamRepository;
 import ru.practicum.users.model.User;
 import ru.practicum.users.repository.UserRepository;
+import ru.practicum.util.PageCursor;
+import ru.practicum.util.Pagination;
 import ru.practicum.util.enam.EventRequestStatus;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 
+import static ru.practicum.util.Constants.PAGE_DEFAULT_SIZE;
 import static ru.practicum.util.enam.EventState.PUBLISHED;
 import static ru.practicum.util.enam.EventRequestStatus.*;
 import static ru.practicum.requests.dto.ParticipationRequestMapper.mapToNewParticipationRequest;
@@ -35,65 +51,59 @@ import static ru.practicum.requests.dto.ParticipationRequestMapper.mapToParticip
 @Transactional
 public class RequestServiceImpl implements RequestService {
 
+    @Value("${requests.create.single-statement.enabled}")
+    private boolean singleStatementCreateEnabled;
+
     private final RequestRepository requestRepository;
+    private final RequestInsertRepository requestInsertRepository;
+    private final RequestStreamRepository requestStreamRepository;
+    private final RequestStatusRepository requestStatusRepository;
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
+    private final ParticipantAdmission participantAdmission;
 
-
-    private EventRequestStatusUpdateResult createConfirmedStatus(List<ParticipationRequest> requests, Event event) {
-        validateParticipantLimit(event);
-        long potentialParticipant = event.getParticipantLimit() - event.getConfirmedRequests();
-
-        List<ParticipationRequest> confirmedRequests;
-        List<ParticipationRequest> rejectedRequests;
-
-        if (requests.size() <= potentialParticipant) {
-            confirmedRequests = requests.stream()
-                    .peek(request -> request.setStatus(CONFIRMED))
-                    .collect(Collectors.toList());
-            rejectedRequests = List.of();
-        } else {
-            confirmedRequests = requests.stream()
-                    .limit(potentialParticipant)
-                    .peek(request -> request.setStatus(CONFIRMED))
-                    .collect(Collectors.toList());
-            rejectedRequests = requests.stream()
-                    .skip(potentialParticipant)
-                    .peek(request -> request.setStatus(REJECTED))
-                    .collect(Collectors.toList());
-        }
-
-        event.setConfirmedRequests(event.getConfirmedRequests() + confirmedRequests.size());
-
-        List<ParticipationRequest> updatedRequests = Stream.concat(confirmedRequests.stream(), rejectedRequests.stream())
-                .collect(Collectors.toList());
-        requestRepository.saveAll(updatedRequests);
-
-        List<ParticipationRequestDto> confirmedRequestsDto = confirmedRequests.stream()
-                .map(ParticipationRequestMapper::mapToParticipationRequestDto)
+    private EventRequestStatusUpdateResult createConfirmedStatus(List<ParticipationRequestDto> requests, Event event) {
+        List<Long> requestIds = requests.stream()
+                .map(ParticipationRequestDto::getId)
                 .collect(Collectors.toList());
+        Set<Long> confirmedIds = new HashSet<>(participantAdmission.admit(event.getId(), event.getParticipantLimit(),
+                        requestIds.size(), seats -> requestStatusRepository.updatePendingStatus(event.getId(),
+                                requestIds.subList(0, seats), CONFIRMED), List::size)
+                .orElseThrow(() -> new ValidateException("The event participant number has reached the limit.")));
 
-        List<ParticipationRequestDto> rejectedRequestsDto = rejectedRequests.stream()
-                .map(ParticipationRequestMapper::mapToParticipationRequestDto)
+        List<ParticipationRequestDto> confirmedRequests = requests.stream()
+                .filter(request -> confirmedIds.contains(request.getId()))
                 .collect(Collectors.toList());
+        confirmedRequests.forEach(request -> request.setStatus(CONFIRMED));
+        List<ParticipationRequestDto> rejectedRequests = updateStatus(event.getId(), requests.stream()
+                .filter(request -> !confirmedIds.contains(request.getId()))
+                .collect(Collectors.toList()), REJECTED);
 
-        return new EventRequestStatusUpdateResult(confirmedRequestsDto, rejectedRequestsDto);
+        return new EventRequestStatusUpdateResult(confirmedRequests, rejectedRequests);
     }
 
 
     @Override
-    public ParticipationRequestDto createParticipationRequest(Long userId, Long eventId) {
+    public ParticipationRequestCreateResult createParticipationRequest(Long userId, Long eventId,
+                                                                       boolean waitlist) {
         Event event = eventRepository.findById(eventId).orElseThrow(()
                 -> new NotFoundException("Event with id = " + eventId + " wasn't found found."));
+
+        if (singleStatementCreateEnabled && event.getState().equals(PUBLISHED)
+                && !userId.equals(event.getInitiator().getId())) {
+            Optional<ParticipationRequestCreateResult> inserted = create(event, userId, waitlist,
+                    status -> requestInsertRepository.insert(userId, eventId, status, LocalDateTime.now()));
+            if (inserted.isPresent()) {
+                return created(inserted.get());
+            }
+        }
+
         User user = userRepository.findById(userId).orElseThrow(()
                 -> new NotFoundException("User with id = " + userId + " wasn't found."));
 
-        event.setConfirmedRequests(requestRepository
-                .countRequestByEventIdAndStatus(event.getId(), EventRequestStatus.CONFIRMED));
-        validateParticipantLimit(event);
-
-        if (requestRepository.existsByRequesterIdAndEventId(userId, eventId)) {
-            throw new ValidateException("You can't create one and the same request twice");
+        Optional<ParticipationRequest> existing = requestRepository.findByRequesterIdAndEventId(userId, eventId);
+        if (existing.isPresent()) {
+            return repeated(mapToParticipationRequestDto(existing.get()));
         }
 
         if (userId.equals(event.getInitiator().getId())) {
@@ -104,29 +114,44 @@ public class RequestServiceImpl implements RequestService {
             throw new ValidateException("It isn't possible to participate not published event");
         }
 
-        ParticipationRequest participationRequest = requestRepository.save(mapToNewParticipationRequest(event, user));
+        return created(create(event, userId, waitlist, status -> {
+            ParticipationRequest newRequest = mapToNewParticipationRequest(event, user);
+            newRequest.setStatus(status);
+            return Optional.of(new ParticipationRequestCreateResult(
+                    mapToParticipationRequestDto(requestRepository.save(newRequest)), true));
+        }).orElseThrow(() -> new ValidateException("Participation request of user with id = " + userId
+                + " for event with id = " + eventId + " can't be created")));
+    }
 
-        log.info("Created participation request {} by user with id = {} for event with id = {}", participationRequest,
-                userId, eventId);
-        return mapToParticipationRequestDto(participationRequest);
+    private EventRequestStatusUpdateResult createRejectedStatus(List<ParticipationRequestDto> requests, Event event) {
+        List<ParticipationRequestDto> rejectedRequests = updateStatus(event.getId(), requests, REJECTED);
+        if (!rejectedRequests.isEmpty()) {
+            participantAdmission.notifyFreed(event.getId());
+        }
+        return new EventRequestStatusUpdateResult(List.of(), rejectedRequests);
     }
 
-    private EventRequestStatusUpdateResult createRejectedStatus(List<ParticipationRequest> requests, Event event) {
-        requests.forEach(request -> request.setStatus(REJECTED));
-        requestRepository.saveAll(requests);
-        List<ParticipationRequestDto> rejectedRequests = requests
-                .stream()
-                .map(ParticipationRequestMapper::mapToParticipationRequestDto)
+    private List<ParticipationRequestDto> updateStatus(Long eventId, List<ParticipationRequestDto> requests,
+                                                       EventRequestStatus status) {
+        Set<Long> updatedIds = new HashSet<>(requestStatusRepository.updatePendingStatus(eventId, requests.stream()
+                .map(ParticipationRequestDto::getId)
+                .collect(Collectors.toList()), status));
+        List<ParticipationRequestDto> updated = requests.stream()
+                .filter(request -> updatedIds.contains(request.getId()))
                 .collect(Collectors.toList());
-        return new EventRequestStatusUpdateResult(List.of(), rejectedRequests);
+        updated.forEach(request -> request.setStatus(status));
+        return updated;
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<ParticipationRequestDto> getParticipationRequestPrivate(Long userId, Long eventId) {
+    public List<ParticipationRequestDto> getParticipationRequestPrivate(Long userId, Long eventId,
+                                                                        EventRequestStatus status, PageCursor cursor,
+                                                                        Integer from, Integer size) {
 
         if (eventRepository.findByIdAndInitiatorId(eventId, userId).isPresent()) {
-            return requestRepository.findAllByEventId(eventId).stream()
+            return requestRepository.findAllByEventIdAfter(eventId, status, getAfterId(cursor),
+                            getPage(cursor, from, size)).stream()
                     .map(ParticipationRequestMapper::mapToParticipationRequestDto)
                     .collect(Collectors.toList());
         }
@@ -134,19 +159,27 @@ public class RequestServiceImpl implements RequestService {
         return Collections.emptyList();
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public void streamParticipationRequestPrivate(Long userId, Long eventId, EventRequestStatus status,
+                                                  Consumer<ParticipationRequestDto> consumer) {
+        if (eventRepository.findByIdAndInitiatorId(eventId, userId).isPresent()) {
+            requestStreamRepository.streamByEventId(eventId, status, consumer);
+        }
+        log.info("Streamed participation requests for event with id = {} to user with id = {}", eventId, userId);
+    }
+
 
     @Override
     public EventRequestStatusUpdateResult updateEventRequestStatusPrivate(Long userId, Long eventId,
                                                                           EventRequestStatusUpdateRequest statusUpdateRequest) {
         Event event = eventRepository.findByIdAndInitiatorId(eventId, userId)
                 .orElseThrow(() -> new NotFoundException("Event with id = " + eventId + " wasn't found."));
-        event.setConfirmedRequests(requestRepository
-                .countRequestByEventIdAndStatus(event.getId(), EventRequestStatus.CONFIRMED));
 
         if (!event.getRequestModeration() || event.getParticipantLimit() == 0) {
             throw new ValidateException("It isn't possible to update status when the application limit is 0");
         }
-        List<ParticipationRequest> requests = requestRepository.findAllByEventIdAndIdIn(eventId,
+        List<ParticipationRequestDto> requests = requestStatusRepository.findAllByEventIdAndIdIn(eventId,
                 statusUpdateRequest.getRequestIds());
 
         validateRequestStatus(requests);
@@ -164,31 +197,152 @@ public class RequestServiceImpl implements RequestService {
 
     @Transactional(readOnly = true)
     @Override
-    public List<ParticipationRequestDto> getParticipationRequestByUserId(Long userId) {
+    public List<ParticipationRequestDto> getParticipationRequestByUserId(Long userId, EventRequestStatus status,
+                                                                         PageCursor cursor, Integer from,
+                                                                         Integer size) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User with id = " + userId + " wasn't found"));
         log.info("Got participation request from user with id = {}", userId);
-        return requestRepository.findAllByRequesterId(userId).stream()
+        return requestRepository.findAllByRequesterIdAfter(userId, status, getAfterId(cursor),
+                        getPage(cursor, from, size)).stream()
                 .map(ParticipationRequestMapper::mapToParticipationRequestDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public void streamParticipationRequestByUserId(Long userId, EventRequestStatus status,
+                                                   Consumer<ParticipationRequestDto> consumer) {
+        userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User with id = " + userId + " wasn't found"));
+        requestStreamRepository.streamByRequesterId(userId, status, consumer);
+        log.info("Streamed participation requests of user with id = {}", userId);
+    }
+
     @Override
     public ParticipationRequestDto updateStatusParticipationRequest(Long userId, Long requestId) {
         ParticipationRequest request = requestRepository.findByIdAndRequesterId(requestId, userId)
                 .orElseThrow(() -> new NotFoundException("Request with id = " + requestId + " wasn't found"));
-        request.setStatus(CANCELED);
+        Long eventId = request.getEvent().getId();
+        requestStatusRepository.cancel(requestId, userId).ifPresent(previous -> {
+            if (previous == CONFIRMED) {
+                participantAdmission.release(eventId, 1);
+            } else if (previous == PENDING) {
+                participantAdmission.notifyFreed(eventId);
+            }
+        });
+        ParticipationRequestDto canceled = mapToParticipationRequestDto(request);
+        canceled.setStatus(CANCELED);
         log.info("Updated status participation request with id = {} by user with id = {}", requestId, userId);
-        return mapToParticipationRequestDto(requestRepository.save(request));
+        return canceled;
+    }
+
+    @Override
+    public int promoteWaitlist(Long eventId, int batchSize) {
+        Event event = eventRepository.findById(eventId).orElse(null);
+        if (event == null || !event.getState().equals(PUBLISHED)) {
+            return 0;
+        }
+        boolean moderated = event.getRequestModeration() && event.getParticipantLimit() != 0;
+        long freeSeats = event.getParticipantLimit() == 0
+                ? Long.MAX_VALUE
+                : event.getParticipantLimit() - event.getConfirmedRequests();
+        if (moderated) {
+            freeSeats -= requestRepository.countRequestByEventIdAndStatus(eventId, PENDING);
+        }
+        if (freeSeats <= 0) {
+            return 0;
+        }
+
+        List<Long> waiting = requestRepository.findIdsByEventIdAndStatus(eventId, WAITING,
+                PageRequest.of(0, (int) Math.min(freeSeats, batchSize)));
+        int promoted;
+        if (moderated) {
+            promoted = requestStatusRepository.updateStatus(eventId, waiting, WAITING, PENDING).size();
+        } else {
+            promoted = participantAdmission.admit(eventId, event.getParticipantLimit(), waiting.size(),
+                            seats -> requestStatusRepository.updateStatus(eventId, waiting.subList(0, seats), WAITING,
+                                    CONFIRMED), List::size)
+                    .map(List::size)
+                    .orElse(0);
+        }
+
+        log.info("Promoted {} waiting requests for event with id = {}", promoted, eventId);
+        return promoted;
     }
 
-    private void validateParticipantLimit(Event event) {
-        if (event.getParticipantLimit() != 0 && event.getParticipantLimit() <= event.getConfirmedRequests()) {
-            throw new ValidateException("The event participant number has reached the limit.");
+    /**
+     * Creates the request in the status the event allows: an auto-confirmed request takes its seat through the
+     * admission gate, a moderated one needs a seat nobody has taken, and a request for a full event goes to the
+     * waitlist or is refused. Returns nothing when the insert's own checks refuse the request.
+     */
+    private Optional<ParticipationRequestCreateResult> create(Event event, Long userId, boolean waitlist,
+            Function<EventRequestStatus, Optional<ParticipationRequestCreateResult>> insert) {
+        Long eventId = event.getId();
+        int participantLimit = event.getParticipantLimit();
+        if (participantLimit != 0 && event.getRequestModeration()) {
+            if (participantAdmission.hasFreeSeats(eventId, participantLimit)) {
+                return insert.apply(PENDING);
+            }
+        } else {
+            Optional<Optional<ParticipationRequestCreateResult>> seated = participantAdmission.admit(eventId,
+                    participantLimit, 1, seats -> insert.apply(CONFIRMED),
+                    inserted -> inserted.filter(ParticipationRequestCreateResult::isCreated).isPresent() ? 1 : 0);
+            if (seated.isPresent()) {
+                return seated.get();
+            }
+        }
+
+        if (waitlist) {
+            return insert.apply(WAITING);
+        }
+        Optional<ParticipationRequest> existing = requestRepository.findByRequesterIdAndEventId(userId, eventId);
+        if (existing.isPresent()) {
+            return Optional.of(new ParticipationRequestCreateResult(mapToParticipationRequestDto(existing.get()),
+                    false));
         }
+        throw new ValidateException("The event participant number has reached the limit.");
+    }
+
+    private ParticipationRequestCreateResult created(ParticipationRequestCreateResult result) {
+        ParticipationRequestDto request = result.getRequest();
+        if (!result.isCreated()) {
+            return repeated(request);
+        }
+        log.info("Created participation request {} by user with id = {} for event with id = {}", request,
+                request.getRequester(), request.getEvent());
+        return result;
+    }
+
+    /**
+     * A repeated request is answered with the live request made before; a canceled or rejected one can't be
+     * made again.
+     */
+    private ParticipationRequestCreateResult repeated(ParticipationRequestDto request) {
+        if (request.getStatus() == CANCELED || request.getStatus() == REJECTED) {
+            throw new ValidateException("Participation request with id = " + request.getId() + " is "
+                    + request.getStatus() + " and can't be made again");
+        }
+        log.info("Participation request {} by user with id = {} for event with id = {} already exists", request,
+                request.getRequester(), request.getEvent());
+        return new ParticipationRequestCreateResult(request, false);
+    }
+
+    private Pageable getPage(PageCursor cursor, Integer from, Integer size) {
+        if (cursor == null && from == null && size == null) {
+            return Pageable.unpaged();
+        }
+        int pageSize = size != null ? size : Integer.parseInt(PAGE_DEFAULT_SIZE);
+        return cursor != null
+                ? PageRequest.of(0, pageSize)
+                : new Pagination(from != null ? from : 0, pageSize, Sort.unsorted());
+    }
+
+    private Long getAfterId(PageCursor cursor) {
+        return cursor != null ? cursor.getId() : 0L;
     }
 
-    private void validateRequestStatus(List<ParticipationRequest> requests) {
+    private void validateRequestStatus(List<ParticipationRequestDto> requests) {
         boolean isStatusPending = requests.stream()
                 .anyMatch(request -> !request.getStatus().equals(PENDING));
         if (isStatusPending) {
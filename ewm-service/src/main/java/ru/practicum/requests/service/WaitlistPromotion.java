@@ -0,0 +1,56 @@
+package ru.practicum.requests.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.requests.repository.RequestRepository;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static ru.practicum.util.enam.EventRequestStatus.WAITING;
+
+@Component
+@Slf4j
+public class WaitlistPromotion {
+
+    private final ParticipantAdmission participantAdmission;
+    private final RequestService requestService;
+    private final RequestRepository requestRepository;
+    private final int batchSize;
+    private final long rescanIntervalMs;
+    private long lastRescan;
+
+    public WaitlistPromotion(ParticipantAdmission participantAdmission,
+                             RequestService requestService,
+                             RequestRepository requestRepository,
+                             @Value("${requests.waitlist.batch-size}") int batchSize,
+                             @Value("${requests.waitlist.rescan-interval-ms}") long rescanIntervalMs) {
+        this.participantAdmission = participantAdmission;
+        this.requestService = requestService;
+        this.requestRepository = requestRepository;
+        this.batchSize = batchSize;
+        this.rescanIntervalMs = rescanIntervalMs;
+    }
+
+    @Scheduled(fixedDelayString = "${requests.waitlist.promote-interval-ms}")
+    public void promote() {
+        Set<Long> eventIds = new LinkedHashSet<>(participantAdmission.pollFreed());
+        long now = System.currentTimeMillis();
+        if (now - lastRescan >= rescanIntervalMs) {
+            eventIds.addAll(requestRepository.findEventIdsByStatus(WAITING));
+            lastRescan = now;
+        }
+        for (Long eventId : eventIds) {
+            try {
+                int promoted;
+                do {
+                    promoted = requestService.promoteWaitlist(eventId, batchSize);
+                } while (promoted == batchSize);
+            } catch (RuntimeException e) {
+                log.warn("Failed to promote waitlist of event with id = {}: {}", eventId, e.getMessage());
+            }
+        }
+    }
+}
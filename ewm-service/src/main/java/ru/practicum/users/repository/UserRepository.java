@@ -2,11 +2,17 @@ package ru.practicum.users.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.users.model.User;
 import ru.practicum.util.Pagination;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+import static org.hibernate.annotations.QueryHints.CACHE_REGION;
+
 public interface UserRepository extends JpaRepository<User, Long> {
+    @QueryHints({@QueryHint(name = CACHEABLE, value = "true"), @QueryHint(name = CACHE_REGION, value = "users-query")})
     Page<User> findAllByIdIn(List<Long> ids, Pagination pagination);
-}
\ No newline at end of file
+}
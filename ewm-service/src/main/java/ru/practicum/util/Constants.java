@@ -2,7 +2,6 @@ package ru.practicum.util;
 
 import lombok.experimental.UtilityClass;
 
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 @UtilityClass
@@ -12,10 +11,6 @@ public class Constants {
 
     public static final String DATE_DEFAULT = "yyyy-MM-dd HH:mm:ss";
     public static final String PATTERN_CREATED_DATE = "yyyy-MM-dd'T'HH:mm:ss.SSS";
-    public static final String START_DATE = LocalDateTime.now().minusDays(1000)
-            .format(DateTimeFormatter.ofPattern(DATE_DEFAULT));
-    public static final String END_DATE = LocalDateTime.now().plusDays(1000)
-            .format(DateTimeFormatter.ofPattern(DATE_DEFAULT));
 
     public static final DateTimeFormatter START_DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_DEFAULT);
 }
\ No newline at end of file
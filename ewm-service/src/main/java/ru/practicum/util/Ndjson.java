@@ -0,0 +1,35 @@
+package ru.practicum.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.experimental.UtilityClass;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes values to the response as newline-delimited JSON, one line per value, as they are produced.
+ * The content type is set with the first line, so an error raised before it still gets a regular error body.
+ */
+@UtilityClass
+public class Ndjson {
+
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    public static <T> Consumer<T> writer(ObjectMapper objectMapper, HttpServletResponse response) {
+        return value -> {
+            try {
+                if (response.getContentType() == null) {
+                    response.setContentType(MEDIA_TYPE);
+                }
+                OutputStream out = response.getOutputStream();
+                out.write(objectMapper.writeValueAsBytes(value));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
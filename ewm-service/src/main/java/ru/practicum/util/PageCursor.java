@@ -0,0 +1,73 @@
+package ru.practicum.util;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation token for keyset pagination: the sort key of the last row of a page.
+ * Listings sorted by id only leave {@code date} empty.
+ * Spring binds it from a request parameter through {@link #valueOf(String)}, so a malformed token is a 400.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class PageCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime date;
+
+    private final Long id;
+
+    private PageCursor(LocalDateTime date, Long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public static PageCursor of(LocalDateTime date, Long id) {
+        return new PageCursor(date, id);
+    }
+
+    public static PageCursor of(Long id) {
+        return new PageCursor(null, id);
+    }
+
+    public static PageCursor valueOf(String token) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = decoded.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Cursor isn't valid: " + token);
+        }
+        String date = decoded.substring(0, separator);
+        return new PageCursor(date.isEmpty() ? null : LocalDateTime.parse(date),
+                Long.parseLong(decoded.substring(separator + 1)));
+    }
+
+    public String encode() {
+        String raw = (date == null ? "" : date.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Wraps a page into a response carrying the cursor of its last element,
+     * or no cursor when the page is not full and there is nothing left to read.
+     */
+    public static <T> ResponseEntity<List<T>> withNextCursor(List<T> page, int size, Function<T, PageCursor> key) {
+        if (page.isEmpty() || page.size() < size) {
+            return ResponseEntity.ok(page);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, key.apply(page.get(page.size() - 1)).encode())
+                .body(page);
+    }
+}
@@ -2,5 +2,5 @@ package ru.practicum.util.enam;
 
 public enum EventRequestStatus {
 
-    CONFIRMED, REJECTED, PENDING, CANCELED
+    CONFIRMED, REJECTED, PENDING, CANCELED, WAITING
 }
\ No newline at end of file
@@ -5,7 +5,7 @@ import java.util.Optional;
 
 public enum EventsSort {
 
-    EVENT_DATE, VIEWS;
+    EVENT_DATE, VIEWS, RELEVANCE;
 
     public static Optional<EventsSort> from(String stringState) {
         return Arrays.stream(values())
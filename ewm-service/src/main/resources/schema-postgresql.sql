@@ -0,0 +1,10 @@
+ALTER TABLE events ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', title), 'A') ||
+    setweight(to_tsvector('simple', annotation), 'B') ||
+    setweight(to_tsvector('simple', description), 'C')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS events_search_vector_idx ON events USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS events_published_available_idx ON events (event_date, category_id)
+    WHERE state = 'PUBLISHED' AND (participant_limit = 0 OR participant_limit > confirmed_requests);
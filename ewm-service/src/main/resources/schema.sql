@@ -26,6 +26,8 @@ event_date TIMESTAMP WITHOUT TIME ZONE                          NOT NULL,
 location_id         BIGINT NOT NULL REFERENCES locations (id),
 paid boolean                                      NOT NULL DEFAULT false,
 participant_limit INT                                 NOT NULL DEFAULT 0,
+confirmed_requests BIGINT                             NOT NULL DEFAULT 0,
+views BIGINT                                          NOT NULL DEFAULT 0,
 request_moderation boolean                         NOT NULL DEFAULT true,
 title varchar(120)                                              NOT NULL,
 initiator_id INT         NOT NULL REFERENCES users (id) ON DELETE CASCADE,
@@ -62,4 +64,19 @@ author_id INT            NOT NULL REFERENCES users (id) ON DELETE CASCADE,
 event_id INT            NOT NULL REFERENCES events (id) ON DELETE CASCADE,
 created_date                        TIMESTAMP WITHOUT TIME ZONE NOT NULL,
 updated_date                        TIMESTAMP WITHOUT TIME ZONE
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS events_state_event_date_idx ON events (state, event_date, id);
+
+CREATE INDEX IF NOT EXISTS events_state_category_event_date_idx ON events (state, category_id, event_date);
+
+CREATE INDEX IF NOT EXISTS events_state_views_idx ON events (state, views DESC, id);
+
+
+CREATE INDEX IF NOT EXISTS requests_event_id_status_idx ON requests (event_id, status);
+
+CREATE INDEX IF NOT EXISTS requests_event_id_idx ON requests (event_id, id);
+
+CREATE INDEX IF NOT EXISTS requests_requester_id_idx ON requests (requester_id, id);
+
+CREATE INDEX IF NOT EXISTS comments_event_id_idx ON comments (event_id, id);
\ No newline at end of file
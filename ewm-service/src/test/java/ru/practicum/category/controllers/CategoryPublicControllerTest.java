@@ -0,0 +1,88 @@
+package ru.practicum.category.controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.category.dto.CategoryDto;
+import ru.practicum.category.service.CategoryService;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = CategoryPublicController.class)
+class CategoryPublicControllerTest {
+
+    private static final String ETAG = "\"5d41402abc4b2a76b9719d911017c592\"";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CategoryService categoryService;
+
+    @BeforeEach
+    public void beforeEach() {
+        when(categoryService.getCategoriesETag()).thenReturn(ETAG);
+    }
+
+    @Test
+    void get_returnsCategoriesWithETag() throws Exception {
+        when(categoryService.getCategory(0, 10)).thenReturn(List.of(new CategoryDto(1L, "concerts")));
+
+        mockMvc.perform(get("/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(jsonPath("$[0].name").value("concerts"));
+    }
+
+    @Test
+    void get_withMatchingETag_returnsNotModified() throws Exception {
+        mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().string(""));
+
+        verify(categoryService, never()).getCategory(anyInt(), anyInt());
+    }
+
+    @Test
+    void get_withStaleETag_returnsCategories() throws Exception {
+        when(categoryService.getCategory(0, 10)).thenReturn(List.of(new CategoryDto(1L, "concerts")));
+
+        mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    void getById_withMatchingETag_returnsNotModified() throws Exception {
+        mockMvc.perform(get("/categories/1").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified());
+
+        verify(categoryService, never()).getCategoryById(anyLong());
+    }
+
+    @Test
+    void getById_returnsCategoryWithETag() throws Exception {
+        when(categoryService.getCategoryById(1L)).thenReturn(new CategoryDto(1L, "concerts"));
+
+        mockMvc.perform(get("/categories/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(jsonPath("$.name").value("concerts"));
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.category.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.category.dto.CategoryDto;
+import ru.practicum.category.repository.CategoryRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CategorySnapshotTest {
+
+    private CategoryRepository categoryRepository;
+
+    @BeforeEach
+    public void beforeEach() {
+        categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAllDtos()).thenReturn(List.of(new CategoryDto(1L, "concerts")));
+    }
+
+    @Test
+    void getCategories_loadsOnceWhileFresh() {
+        CategorySnapshot snapshot = new CategorySnapshot(categoryRepository, 60_000);
+
+        snapshot.getCategories();
+        snapshot.getCategory(1L);
+        snapshot.getETag();
+
+        verify(categoryRepository, times(1)).findAllDtos();
+    }
+
+    @Test
+    void getCategories_reloadsChangesOfOtherNodesAfterExpiry() {
+        CategorySnapshot snapshot = new CategorySnapshot(categoryRepository, 0);
+        String etag = snapshot.getETag();
+        when(categoryRepository.findAllDtos()).thenReturn(List.of(new CategoryDto(1L, "theatre")));
+
+        assertEquals("theatre", snapshot.getCategory(1L).orElseThrow().getName());
+        assertNotEquals(etag, snapshot.getETag());
+    }
+
+    @Test
+    void getETag_staysTheSameWhenReloadedContentIsUnchanged() {
+        CategorySnapshot snapshot = new CategorySnapshot(categoryRepository, 0);
+
+        assertEquals(snapshot.getETag(), snapshot.getETag());
+        verify(categoryRepository, times(2)).findAllDtos();
+    }
+
+    @Test
+    void refresh_dropsSnapshotAgainAfterCommit() {
+        CategorySnapshot snapshot = new CategorySnapshot(categoryRepository, 60_000);
+        snapshot.getCategories();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            snapshot.refresh();
+            snapshot.getCategories();
+            when(categoryRepository.findAllDtos()).thenReturn(List.of(new CategoryDto(1L, "theatre")));
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals("theatre", snapshot.getCategory(1L).orElseThrow().getName());
+        verify(categoryRepository, times(3)).findAllDtos();
+    }
+}
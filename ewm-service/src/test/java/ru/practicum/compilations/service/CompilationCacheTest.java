@@ -0,0 +1,162 @@
+package ru.practicum.compilations.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.compilations.dto.CompilationDto;
+import ru.practicum.events.dto.EventShortDto;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompilationCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getCompilation_loadsOnceUntilExpired() {
+        CompilationCache cache = cache(10, 60_000);
+
+        cache.getCompilation(1L, loader(1L));
+        cache.getCompilation(1L, loader(1L));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getCompilation_reloadsExpiredEntry() {
+        CompilationCache cache = cache(10, 0);
+
+        cache.getCompilation(1L, loader(1L));
+        cache.getCompilation(1L, loader(1L));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getCompilation_dropsLeastRecentlyUsedBeyondMaxSize() {
+        CompilationCache cache = cache(2, 60_000);
+        cache.getCompilation(1L, loader(1L));
+        cache.getCompilation(2L, loader(2L));
+        cache.getCompilation(1L, loader(1L));
+
+        cache.getCompilation(3L, loader(3L));
+        cache.getPage("0_10", List::of);
+
+        assertEquals(3, cache.size());
+        cache.getCompilation(1L, loader(1L));
+        assertEquals(3, loads.get());
+        cache.getCompilation(2L, loader(2L));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void evict_insideTransaction_evictsAgainAfterCommit() {
+        CompilationCache cache = cache(10, 60_000);
+        cache.getCompilation(1L, loader(1L));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(1L);
+            cache.getCompilation(1L, loader(1L));
+
+            TransactionSynchronizationUtils.invokeAfterCommit(
+                    TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        cache.getCompilation(1L, loader(1L));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void evict_dropsValueLoadedBeforeEviction() {
+        CompilationCache cache = cache(10, 60_000);
+
+        cache.getCompilation(1L, () -> {
+            cache.evict(1L);
+            return loader(1L).get();
+        });
+        cache.getCompilation(1L, loader(1L));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evict_clearsPages() {
+        CompilationCache cache = cache(10, 60_000);
+        cache.getPage("0_10", List::of);
+        cache.getCompilation(2L, loader(2L));
+
+        cache.evict(1L);
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void evictByEvent_dropsCompilationsWithEventAndPages() {
+        CompilationCache cache = cache(10, 60_000);
+        cache.getCompilation(1L, loader(1L, 10L));
+        cache.getCompilation(2L, loader(2L, 20L));
+        cache.getCompilation(3L, () -> CompilationDto.builder().id(3L).build());
+        cache.getPage("0_10", List::of);
+
+        cache.evictByEvent(10L);
+
+        assertEquals(2, cache.size());
+        cache.getCompilation(2L, loader(2L, 20L));
+        assertEquals(2, loads.get());
+        cache.getCompilation(1L, loader(1L, 10L));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void hitRatio_isReportedAsGauge() {
+        CompilationCache cache = cache(10, 60_000);
+        assertEquals(0, gauge("compilations.cache.hit.ratio"));
+
+        for (int i = 0; i < 4; i++) {
+            cache.getCompilation(1L, loader(1L));
+        }
+
+        assertEquals(0.75, gauge("compilations.cache.hit.ratio"));
+        assertEquals(1, gauge("compilations.cache.size"));
+        assertEquals(3, meterRegistry.get("compilations.cache").tag("result", "hit").counter().count());
+    }
+
+    private CompilationCache cache(int maxSize, long expireAfterMs) {
+        return new CompilationCache(maxSize, expireAfterMs, meterRegistry);
+    }
+
+    private Supplier<CompilationDto> loader(Long compId, Long... eventIds) {
+        return () -> {
+            loads.incrementAndGet();
+            Set<EventShortDto> events = new HashSet<>();
+            for (Long eventId : eventIds) {
+                events.add(EventShortDto.builder().id(eventId).build());
+            }
+            return CompilationDto.builder()
+                    .id(compId)
+                    .events(events)
+                    .build();
+        };
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
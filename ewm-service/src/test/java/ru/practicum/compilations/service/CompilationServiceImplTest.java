@@ -0,0 +1,156 @@
+package ru.practicum.compilations.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.category.model.Category;
+import ru.practicum.category.service.CategorySnapshot;
+import ru.practicum.compilations.dto.CompilationDto;
+import ru.practicum.compilations.model.Compilation;
+import ru.practicum.events.dto.EventShortDto;
+import ru.practicum.events.model.Event;
+import ru.practicum.locations.model.Location;
+import ru.practicum.users.model.User;
+import ru.practicum.util.PageCursor;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.util.enam.EventState.PUBLISHED;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CompilationServiceImpl.class, CompilationCache.class, CategorySnapshot.class, SimpleMeterRegistry.class})
+class CompilationServiceImplTest {
+
+    private static final int COMPILATIONS = 3;
+    private static final int EVENTS_PER_COMPILATION = 5;
+
+    @Autowired
+    private CompilationService compilationService;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long compilationId;
+
+    @BeforeEach
+    public void beforeEach() {
+        for (int i = 0; i < COMPILATIONS; i++) {
+            Set<Event> events = new HashSet<>();
+            for (int j = 0; j < EVENTS_PER_COMPILATION; j++) {
+                events.add(persistEvent(i * EVENTS_PER_COMPILATION + j));
+            }
+            compilationId = em.persist(Compilation.builder()
+                    .title("compilation " + i)
+                    .pinned(i % 2 == 0)
+                    .events(events)
+                    .build()).getId();
+        }
+        em.flush();
+        em.clear();
+        categorySnapshot.refresh();
+        categorySnapshot.getCategories();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllCompilationsPublic_loadsPageWithEventsInTwoStatements() {
+        List<CompilationDto> compilations = compilationService.getAllCompilationsPublic(null, true, null, 0, 10);
+
+        assertEquals(COMPILATIONS, compilations.size());
+        compilations.forEach(this::assertRendered);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getCompilationByIdPublic_loadsCompilationWithEventsInOneStatement() {
+        CompilationDto compilation = compilationService.getCompilationByIdPublic(compilationId, true);
+
+        assertRendered(compilation);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getCompilationEventsPublic_returnsRequestedPage() {
+        List<EventShortDto> firstPage = compilationService.getCompilationEventsPublic(compilationId, null, 0, 3);
+        List<EventShortDto> nextPage = compilationService.getCompilationEventsPublic(compilationId,
+                PageCursor.of(firstPage.get(firstPage.size() - 1).getId()), 0, 3);
+
+        assertEquals(3, firstPage.size());
+        assertEquals(EVENTS_PER_COMPILATION - 3, nextPage.size());
+        assertTrue(firstPage.get(2).getId() < nextPage.get(0).getId());
+    }
+
+    @Test
+    void addAndRemoveCompilationEventsAdmin_changeOnlyGivenMembers() {
+        Long added = persistEvent(COMPILATIONS * EVENTS_PER_COMPILATION).getId();
+        Long removed = compilationService.getCompilationEventsPublic(compilationId, null, 0, 1).get(0).getId();
+
+        compilationService.addCompilationEventsAdmin(compilationId, Set.of(added));
+        compilationService.removeCompilationEventsAdmin(compilationId, Set.of(removed));
+        em.clear();
+
+        Set<Long> members = compilationService.getCompilationEventsPublic(compilationId, null, 0, 100).stream()
+                .map(EventShortDto::getId)
+                .collect(Collectors.toSet());
+        assertEquals(EVENTS_PER_COMPILATION, members.size());
+        assertTrue(members.contains(added));
+        assertFalse(members.contains(removed));
+    }
+
+    private void assertRendered(CompilationDto compilation) {
+        assertEquals(EVENTS_PER_COMPILATION, compilation.getEvents().size());
+        compilation.getEvents().forEach(event -> {
+            assertNotNull(event.getCategory().getName());
+            assertNotNull(event.getInitiator().getName());
+        });
+    }
+
+    private Event persistEvent(int number) {
+        Category category = new Category();
+        category.setName("category " + number);
+        em.persist(category);
+
+        User initiator = new User();
+        initiator.setName("user " + number);
+        initiator.setEmail("user" + number + "@mail.ru");
+        em.persist(initiator);
+
+        Event event = new Event();
+        event.setTitle("event " + number);
+        event.setAnnotation("annotation of event " + number);
+        event.setDescription("description of event " + number);
+        event.setCategory(category);
+        event.setInitiator(initiator);
+        event.setLocation(em.persist(new Location(null, 55.75f, 37.62f)));
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setPaid(false);
+        event.setParticipantLimit(0);
+        event.setRequestModeration(true);
+        event.setState(PUBLISHED);
+        return em.persist(event);
+    }
+}
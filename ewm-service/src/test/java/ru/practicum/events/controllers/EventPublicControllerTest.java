@@ -0,0 +1,49 @@
+package ru.practicum.events.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.events.service.EventService;
+import ru.practicum.util.PageCursor;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = EventPublicController.class)
+class EventPublicControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EventService eventService;
+
+    @Test
+    void getEventsPublic_withCursorAndViewsSort_returnsBadRequest() throws Exception {
+        String cursor = PageCursor.of(LocalDateTime.of(2030, 1, 1, 10, 0), 5L).encode();
+
+        mockMvc.perform(get("/events")
+                        .param("sort", "VIEWS")
+                        .param("cursor", cursor))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value("BAD REQUEST"));
+
+        verify(eventService, never()).getEventsPublic(any(), any(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any());
+    }
+
+    @Test
+    void getEventsPublic_withUnknownSort_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/events")
+                        .param("sort", "POPULARITY"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.events.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against PostgreSQL without a test transaction, so a confirmation can commit while a reconciliation waits.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(type = POSTGRES, provider = ZONKY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(EventConfirmedRequestsRepository.class)
+class EventConfirmedRequestsRepositoryTest {
+
+    @Autowired
+    private EventConfirmedRequestsRepository eventConfirmedRequestsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long initiatorId;
+    private int users;
+
+    @BeforeEach
+    public void beforeEach() {
+        initiatorId = insertUser();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        jdbcTemplate.update("DELETE FROM requests");
+        jdbcTemplate.update("DELETE FROM events");
+        jdbcTemplate.update("DELETE FROM locations");
+        jdbcTemplate.update("DELETE FROM categories");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void reconcile_fixesOnlyDriftedCounters() {
+        long drifted = insertEvent(5);
+        insertRequest(drifted, "CONFIRMED");
+        long correct = insertEvent(1);
+        insertRequest(correct, "CONFIRMED");
+        insertRequest(correct, "PENDING");
+
+        assertEquals(List.of(drifted), eventConfirmedRequestsRepository.findDriftedIds());
+        assertTrue(eventConfirmedRequestsRepository.reconcile(drifted));
+        assertFalse(eventConfirmedRequestsRepository.reconcile(correct));
+
+        assertEquals(1, confirmedRequests(drifted));
+        assertEquals(1, confirmedRequests(correct));
+        assertTrue(eventConfirmedRequestsRepository.findDriftedIds().isEmpty());
+    }
+
+    @Test
+    void reconcile_countsConfirmationCommittedWhileWaitingForLock() throws Exception {
+        long eventId = insertEvent(5);
+        insertRequest(eventId, "CONFIRMED");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> confirmation = CompletableFuture.runAsync(() -> new TransactionTemplate(
+                transactionManager).executeWithoutResult(status -> {
+                    jdbcTemplate.update("UPDATE events SET confirmed_requests = confirmed_requests + 1 WHERE id = ?",
+                            eventId);
+                    insertRequest(eventId, "CONFIRMED");
+                    locked.countDown();
+                    await(commit);
+                }));
+        await(locked);
+
+        CompletableFuture<Boolean> reconciliation = CompletableFuture.supplyAsync(() ->
+                eventConfirmedRequestsRepository.reconcile(eventId));
+        Thread.sleep(200);
+        assertFalse(reconciliation.isDone());
+        commit.countDown();
+        confirmation.get(5, TimeUnit.SECONDS);
+
+        assertTrue(reconciliation.get(5, TimeUnit.SECONDS));
+        assertEquals(2, confirmedRequests(eventId));
+    }
+
+    private long confirmedRequests(long eventId) {
+        return jdbcTemplate.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?", Long.class,
+                eventId);
+    }
+
+    private long insertUser() {
+        users++;
+        return jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, ?) RETURNING id",
+                Long.class, "user" + users + "@mail.ru", "user " + users);
+    }
+
+    private long insertEvent(long confirmedRequests) {
+        long categoryId = jdbcTemplate.queryForObject("INSERT INTO categories (name) VALUES (?) RETURNING id",
+                Long.class, "category " + users++);
+        long locationId = jdbcTemplate.queryForObject("INSERT INTO locations (lat, lon) VALUES (55.75, 37.62) " +
+                "RETURNING id", Long.class);
+        return jdbcTemplate.queryForObject("INSERT INTO events (annotation, category_id, description, event_date, " +
+                        "location_id, participant_limit, confirmed_requests, title, initiator_id, state, created_on) " +
+                        "VALUES ('annotation of event', ?, 'description of event', NOW() + INTERVAL '1 day', " +
+                        "?, 10, ?, 'event', ?, 'PUBLISHED', NOW()) RETURNING id",
+                Long.class, categoryId, locationId, confirmedRequests, initiatorId);
+    }
+
+    private void insertRequest(long eventId, String status) {
+        jdbcTemplate.update("INSERT INTO requests (event_id, requester_id, status, created_date) " +
+                "VALUES (?, ?, ?, NOW())", eventId, insertUser(), status);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
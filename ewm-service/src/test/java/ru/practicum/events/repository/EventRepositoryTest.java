@@ -0,0 +1,112 @@
+package ru.practicum.events.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import ru.practicum.category.model.Category;
+import ru.practicum.events.model.Event;
+import ru.practicum.locations.model.Location;
+import ru.practicum.users.model.User;
+import ru.practicum.util.Pagination;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.util.enam.EventState.PUBLISHED;
+
+/**
+ * Covers the LIKE search used where full-text search is disabled or the text has no words.
+ */
+@DataJpaTest
+class EventRepositoryTest {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private User initiator;
+    private Category category;
+
+    @BeforeEach
+    public void beforeEach() {
+        User user = new User();
+        user.setName("initiator");
+        user.setEmail("initiator@mail.ru");
+        initiator = em.persist(user);
+        Category newCategory = new Category();
+        newCategory.setName("concerts");
+        category = em.persist(newCategory);
+    }
+
+    @Test
+    void findAllPublishStateByTextOrderByRelevance_ranksTitleThenAnnotationThenDescription() {
+        Long inDescription = persistEvent("meetup", "annotation of meetup", "with a JAZZ band").getId();
+        Long inTitle = persistEvent("Jazz night", "annotation of night", "description of night").getId();
+        Long inAnnotation = persistEvent("evening", "annotation of jazz evening", "description of evening")
+                .getId();
+        Long inTitleToo = persistEvent("jazz morning", "annotation of jazz morning", "description of morning")
+                .getId();
+        persistEvent("lecture", "annotation of lecture", "description of lecture");
+
+        List<Long> ids = ids(findByRelevance("jAzZ", 0, 10));
+
+        assertEquals(List.of(inTitle, inTitleToo, inAnnotation, inDescription), ids);
+    }
+
+    @Test
+    void findAllPublishStateByTextOrderByRelevance_pagesInRelevanceOrder() {
+        Long inAnnotation = persistEvent("evening", "annotation of jazz evening", "description of evening")
+                .getId();
+        Long inTitle = persistEvent("jazz night", "annotation of night", "description of night").getId();
+
+        assertEquals(List.of(inTitle), ids(findByRelevance("jazz", 0, 1)));
+        assertEquals(List.of(inAnnotation), ids(findByRelevance("jazz", 1, 1)));
+    }
+
+    @Test
+    void findAllPublic_matchesTextAnywhereIgnoringCase() {
+        Long inTitle = persistEvent("Rock'n'Roll party", "annotation of party", "description of party").getId();
+        persistEvent("lecture", "annotation of lecture", "description of lecture");
+        em.flush();
+
+        List<Event> events = eventRepository.findAllPublic(PUBLISHED, LocalDateTime.now(), null, null, null, false,
+                "rock'n'roll", new Pagination(0, 10, Sort.by("id")));
+
+        assertEquals(List.of(inTitle), ids(events));
+    }
+
+    private List<Event> findByRelevance(String text, int from, int size) {
+        em.flush();
+        return eventRepository.findAllPublishStateByTextOrderByRelevance(PUBLISHED, LocalDateTime.now(), null, null,
+                null, false, text, new Pagination(from, size, Sort.unsorted()));
+    }
+
+    private List<Long> ids(List<Event> events) {
+        List<Long> ids = new ArrayList<>();
+        events.forEach(event -> ids.add(event.getId()));
+        return ids;
+    }
+
+    private Event persistEvent(String title, String annotation, String description) {
+        Event event = new Event();
+        event.setTitle(title);
+        event.setAnnotation(annotation);
+        event.setDescription(description);
+        event.setCategory(category);
+        event.setInitiator(initiator);
+        event.setLocation(em.persist(new Location(null, 55.75f, 37.62f)));
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setPaid(false);
+        event.setParticipantLimit(0);
+        event.setRequestModeration(true);
+        event.setState(PUBLISHED);
+        return em.persist(event);
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.events.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import ru.practicum.category.model.Category;
+import ru.practicum.events.model.Event;
+import ru.practicum.locations.model.Location;
+import ru.practicum.users.model.User;
+import ru.practicum.util.Pagination;
+import ru.practicum.util.enam.EventsSort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.util.enam.EventState.PUBLISHED;
+
+/**
+ * Runs the full-text search against PostgreSQL, where events.search_vector exists.
+ */
+@DataJpaTest(properties = "spring.sql.init.schema-locations=classpath:schema.sql,classpath:schema-postgresql.sql")
+@AutoConfigureEmbeddedDatabase(type = POSTGRES, provider = ZONKY)
+@Import(EventSearchRepository.class)
+class EventSearchRepositoryTest {
+
+    @Autowired
+    private EventSearchRepository eventSearchRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private User initiator;
+    private Category category;
+
+    @BeforeEach
+    public void beforeEach() {
+        User user = new User();
+        user.setName("initiator");
+        user.setEmail("initiator@mail.ru");
+        initiator = em.persist(user);
+        Category newCategory = new Category();
+        newCategory.setName("concerts");
+        category = em.persist(newCategory);
+    }
+
+    @Test
+    void toTsQuery_joinsWordsAsPrefixes() {
+        assertEquals("rock:* & concert:*", EventSearchRepository.toTsQuery("rock concert"));
+    }
+
+    @Test
+    void toTsQuery_dropsPunctuationAndOperators() {
+        assertEquals("rock:* & n:* & roll:* & 2030:*",
+                EventSearchRepository.toTsQuery("  rock'n'roll & (2030)!:* |"));
+    }
+
+    @Test
+    void toTsQuery_keepsNonLatinLetters() {
+        assertEquals("Концерт:* & джаз:*", EventSearchRepository.toTsQuery("Концерт, джаз"));
+    }
+
+    @Test
+    void toTsQuery_withoutWords_returnsEmptyQuery() {
+        assertEquals("", EventSearchRepository.toTsQuery(""));
+        assertEquals("", EventSearchRepository.toTsQuery(" !?& :* "));
+    }
+
+    @Test
+    void searchIds_withRelevanceSort_ranksTitleAboveAnnotationAndDescription() {
+        Long inDescription = persistEvent("meetup", "annotation of meetup", "with a jazz band").getId();
+        Long inTitle = persistEvent("jazz night", "annotation of night", "description of night").getId();
+        Long inAnnotation = persistEvent("evening", "annotation of jazz evening", "description of evening")
+                .getId();
+        persistEvent("lecture", "annotation of lecture", "description of lecture");
+
+        List<Long> ids = search(EventSearchRepository.toTsQuery("Jazz!"), EventsSort.RELEVANCE);
+
+        assertEquals(List.of(inTitle, inAnnotation, inDescription), ids);
+    }
+
+    @Test
+    void searchIds_matchesEveryWordByPrefix() {
+        Long both = persistEvent("jazz concert", "annotation of concert", "description of concert").getId();
+        persistEvent("jazz lecture", "annotation of lecture", "description of lecture");
+
+        assertEquals(List.of(both), search(EventSearchRepository.toTsQuery("jaz, conc"), null));
+    }
+
+    private List<Long> search(String tsQuery, EventsSort sort) {
+        em.flush();
+        return eventSearchRepository.searchIds(PUBLISHED, tsQuery, LocalDateTime.now(), null, null, null, false,
+                null, sort, new Pagination(0, 10, Sort.unsorted()));
+    }
+
+    private Event persistEvent(String title, String annotation, String description) {
+        Event event = new Event();
+        event.setTitle(title);
+        event.setAnnotation(annotation);
+        event.setDescription(description);
+        event.setCategory(category);
+        event.setInitiator(initiator);
+        event.setLocation(em.persist(new Location(null, 55.75f, 37.62f)));
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setPaid(false);
+        event.setParticipantLimit(0);
+        event.setRequestModeration(true);
+        event.setState(PUBLISHED);
+        return em.persist(event);
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.events.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import ru.practicum.StatsClient;
+import ru.practicum.dto.ViewStatsDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventViewsCacheTest {
+
+    private static final Duration LOAD_TIMEOUT = Duration.ofMillis(300);
+
+    private StatsClient statsClient;
+
+    @BeforeEach
+    public void beforeEach() {
+        statsClient = mock(StatsClient.class);
+    }
+
+    @Test
+    void getViews_loadsMissOnceWithShortTimeout() {
+        EventViewsCache cache = cache(60_000, 60_000);
+        when(statsClient.getTotalStatsAsync(List.of("/events/1", "/events/2"), true, LOAD_TIMEOUT))
+                .thenReturn(Flux.just(new ViewStatsDto("ewm-main-service", "/events/1", 5L)));
+
+        assertEquals(Map.of(1L, 5L, 2L, 0L), cache.getViews(List.of(1L, 2L)));
+        assertEquals(Map.of(1L, 5L, 2L, 0L), cache.getViews(List.of(1L, 2L)));
+
+        verify(statsClient).getTotalStatsAsync(anyList(), eq(true), eq(LOAD_TIMEOUT));
+        verify(statsClient, never()).getTotalStatsAsync(anyList(), eq(true));
+    }
+
+    @Test
+    void getViews_servesExpiredEntryAtOnceAndRefreshesInBackground() {
+        EventViewsCache cache = cache(0, 0);
+        when(statsClient.getTotalStatsAsync(List.of("/events/1"), true, LOAD_TIMEOUT))
+                .thenReturn(Flux.just(new ViewStatsDto("ewm-main-service", "/events/1", 5L)));
+        cache.getViews(1L);
+        when(statsClient.getTotalStatsAsync(List.of("/events/1"), true))
+                .thenReturn(Flux.never());
+
+        assertEquals(5L, cache.getViews(1L));
+        verify(statsClient).getTotalStatsAsync(List.of("/events/1"), true);
+    }
+
+    @Test
+    void getViews_defaultsMissToZeroWhenStatsServiceFails() {
+        EventViewsCache cache = cache(60_000, 60_000);
+        when(statsClient.getTotalStatsAsync(anyList(), eq(true), any(Duration.class)))
+                .thenReturn(Flux.error(new IllegalStateException("stats service is down")));
+
+        assertEquals(0L, cache.getViews(1L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void getViews_asksForAtMostHundredUrisPerRequest() {
+        EventViewsCache cache = cache(60_000, 60_000);
+        List<Long> eventIds = LongStream.rangeClosed(1, 150).boxed().collect(Collectors.toList());
+        when(statsClient.getTotalStatsAsync(anyList(), eq(true), eq(LOAD_TIMEOUT))).thenAnswer(invocation -> {
+            List<String> uris = invocation.getArgument(0);
+            if (uris.size() > 100) {
+                return Flux.error(new IllegalArgumentException("too many uris"));
+            }
+            if (uris.contains("/events/150")) {
+                return Flux.error(new IllegalStateException("stats service is down"));
+            }
+            return Flux.just(new ViewStatsDto("ewm-main-service", "/events/1", 5L));
+        });
+
+        Map<Long, Long> views = cache.getViews(eventIds);
+
+        ArgumentCaptor<List<String>> uris = urisCaptor();
+        verify(statsClient, times(2)).getTotalStatsAsync(uris.capture(), eq(true), eq(LOAD_TIMEOUT));
+        assertEquals(List.of(100, 50), uris.getAllValues().stream().map(List::size).collect(Collectors.toList()));
+        assertEquals(5L, views.get(1L));
+        assertEquals(100, views.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<String>> urisCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private EventViewsCache cache(long refreshAfterMs, long expireAfterMs) {
+        return new EventViewsCache(statsClient, 100, refreshAfterMs, expireAfterMs, LOAD_TIMEOUT.toMillis(),
+                new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.events.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.StatsClient;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.events.repository.EventRepository;
+import ru.practicum.events.repository.EventViewsRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static ru.practicum.util.Constants.START_DATE_FORMATTER;
+import static ru.practicum.util.enam.EventState.PUBLISHED;
+
+class EventViewsSyncTest {
+
+    private static final long LAG_MS = 60_000;
+
+    private StatsClient statsClient;
+    private EventRepository eventRepository;
+    private EventViewsRepository eventViewsRepository;
+    private EventViewsSync eventViewsSync;
+
+    @BeforeEach
+    public void beforeEach() {
+        statsClient = mock(StatsClient.class);
+        eventRepository = mock(EventRepository.class);
+        eventViewsRepository = mock(EventViewsRepository.class);
+        when(eventRepository.findIdsByStateAfter(eq(PUBLISHED), any(), any())).thenReturn(List.of());
+        when(statsClient.getTotalStats(anyList(), eq(true))).thenReturn(List.of());
+        eventViewsSync = new EventViewsSync(statsClient, eventRepository, eventViewsRepository, LAG_MS);
+    }
+
+    @Test
+    void sync_backfillsEveryPublishedEventInChunks() {
+        List<Long> firstPage = LongStream.rangeClosed(1, 100).boxed().collect(Collectors.toList());
+        when(eventRepository.findIdsByStateAfter(eq(PUBLISHED), eq(0L), any())).thenReturn(firstPage);
+        when(eventRepository.findIdsByStateAfter(eq(PUBLISHED), eq(100L), any())).thenReturn(List.of(101L));
+        when(statsClient.getTotalStats(anyList(), eq(true)))
+                .thenReturn(List.of(new ViewStatsDto("ewm-main-service", "/events/1", 5)));
+        when(statsClient.getTotalStats(List.of("/events/101"), true)).thenReturn(List.of());
+
+        eventViewsSync.sync();
+
+        ArgumentCaptor<Map<Long, Long>> views = viewsCaptor();
+        verify(eventViewsRepository, times(2)).updateViews(views.capture());
+        assertEquals(100, views.getAllValues().get(0).size());
+        assertEquals(5L, views.getAllValues().get(0).get(1L));
+        assertEquals(0L, views.getAllValues().get(0).get(2L));
+        assertEquals(Map.of(101L, 0L), views.getAllValues().get(1));
+        verify(statsClient, never()).getStats(anyString(), anyString(), anyList(), any());
+    }
+
+    @Test
+    void sync_afterBackfill_recountsOnlyEventsViewedInWindow() {
+        eventViewsSync.sync();
+        when(statsClient.getStats(anyString(), anyString(), eq(List.of()), eq(false)))
+                .thenReturn(ResponseEntity.ok(List.of(new ViewStatsDto("ewm-main-service", "/events/7", 3),
+                        new ViewStatsDto("ewm-main-service", "/events", 9),
+                        new ViewStatsDto("ewm-main-service", "/events/abc", 1))));
+        when(statsClient.getTotalStats(List.of("/events/7"), true))
+                .thenReturn(List.of(new ViewStatsDto("ewm-main-service", "/events/7", 2)));
+
+        LocalDateTime before = LocalDateTime.now();
+        eventViewsSync.sync();
+
+        ArgumentCaptor<String> start = ArgumentCaptor.forClass(String.class);
+        verify(statsClient).getStats(start.capture(), anyString(), anyList(), any());
+        assertFalse(LocalDateTime.parse(start.getValue(), START_DATE_FORMATTER)
+                .isAfter(before.minusNanos(LAG_MS * 1_000_000)));
+        verify(eventViewsRepository).updateViews(Map.of(7L, 2L));
+        verify(eventRepository, times(1)).findIdsByStateAfter(eq(PUBLISHED), eq(0L), any());
+    }
+
+    @Test
+    void sync_whenWindowFails_retriesSameWindowNextRun() {
+        eventViewsSync.sync();
+        when(statsClient.getStats(anyString(), anyString(), anyList(), any()))
+                .thenThrow(new IllegalStateException("stats service is down"))
+                .thenReturn(ResponseEntity.ok(List.of()));
+
+        eventViewsSync.sync();
+        eventViewsSync.sync();
+
+        ArgumentCaptor<String> start = ArgumentCaptor.forClass(String.class);
+        verify(statsClient, times(2)).getStats(start.capture(), anyString(), anyList(), any());
+        assertEquals(start.getAllValues().get(0), start.getAllValues().get(1));
+        verify(eventViewsRepository, never()).updateViews(anyMap());
+    }
+
+    @Test
+    void sync_whenBackfillFailsPartway_keepsUpdatedChunksAndBackfillsAgain() {
+        when(eventRepository.findIdsByStateAfter(eq(PUBLISHED), eq(0L), any())).thenReturn(List.of(1L));
+        when(eventRepository.findIdsByStateAfter(eq(PUBLISHED), eq(1L), any())).thenReturn(List.of(2L));
+        when(statsClient.getTotalStats(List.of("/events/2"), true))
+                .thenThrow(new IllegalStateException("stats service is down"))
+                .thenReturn(List.of(new ViewStatsDto("ewm-main-service", "/events/2", 4)));
+
+        eventViewsSync.sync();
+
+        verify(eventViewsRepository).updateViews(Map.of(1L, 0L));
+        verify(eventViewsRepository, never()).updateViews(Map.of(2L, 4L));
+
+        eventViewsSync.sync();
+
+        verify(eventViewsRepository, times(2)).updateViews(Map.of(1L, 0L));
+        verify(eventViewsRepository).updateViews(Map.of(2L, 4L));
+        verify(statsClient, never()).getStats(anyString(), anyString(), anyList(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Map<Long, Long>> viewsCaptor() {
+        return ArgumentCaptor.forClass(Map.class);
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.requests.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.handler.ValidateException;
+import ru.practicum.requests.dto.ParticipationRequestCreateResult;
+import ru.practicum.requests.dto.ParticipationRequestDto;
+import ru.practicum.requests.service.RequestService;
+import ru.practicum.util.Ndjson;
+import ru.practicum.util.PageCursor;
+import ru.practicum.util.enam.EventRequestStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.util.PageCursor.NEXT_CURSOR_HEADER;
+import static ru.practicum.util.enam.EventRequestStatus.CONFIRMED;
+import static ru.practicum.util.enam.EventRequestStatus.PENDING;
+
+@WebMvcTest(controllers = RequestPrivateController.class)
+class RequestPrivateControllerTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RequestService requestService;
+
+    @Test
+    void create_newRequest_returnsCreated() throws Exception {
+        when(requestService.createParticipationRequest(1L, 10L, false))
+                .thenReturn(new ParticipationRequestCreateResult(request(1L, PENDING), true));
+
+        mockMvc.perform(post("/users/1/requests")
+                        .param("eventId", "10"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void create_repeatedRequest_returnsExistingWithOk() throws Exception {
+        when(requestService.createParticipationRequest(1L, 10L, false))
+                .thenReturn(new ParticipationRequestCreateResult(request(1L, CONFIRMED), false));
+
+        mockMvc.perform(post("/users/1/requests")
+                        .param("eventId", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"));
+    }
+
+    @Test
+    void create_repeatedCanceledRequest_returnsConflict() throws Exception {
+        when(requestService.createParticipationRequest(1L, 10L, false))
+                .thenThrow(new ValidateException("Participation request with id = 1 is CANCELED"));
+
+        mockMvc.perform(post("/users/1/requests")
+                        .param("eventId", "10"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void getParticipationRequest_withoutPaging_returnsAllWithoutCursor() throws Exception {
+        when(requestService.getParticipationRequestByUserId(1L, null, null, null, null))
+                .thenReturn(List.of(request(1L, PENDING), request(2L, CONFIRMED)));
+
+        mockMvc.perform(get("/users/1/requests"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].status").value("CONFIRMED"))
+                .andExpect(jsonPath("$[1].created").value("2030-01-01 10:00:00"));
+    }
+
+    @Test
+    void getParticipationRequest_withFullPage_returnsNextCursor() throws Exception {
+        when(requestService.getParticipationRequestByUserId(1L, null, null, 0, 2))
+                .thenReturn(List.of(request(1L, PENDING), request(2L, PENDING)));
+
+        mockMvc.perform(get("/users/1/requests")
+                        .param("from", "0")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(NEXT_CURSOR_HEADER, PageCursor.of(2L).encode()))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void getParticipationRequest_withCursor_passesItOnAndStopsAtLastPage() throws Exception {
+        PageCursor cursor = PageCursor.of(2L);
+        when(requestService.getParticipationRequestByUserId(1L, null, cursor, null, 2))
+                .thenReturn(List.of(request(3L, PENDING)));
+
+        mockMvc.perform(get("/users/1/requests")
+                        .param("cursor", cursor.encode())
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$[0].id").value(3));
+    }
+
+    @Test
+    void getParticipationRequest_withStatus_filtersByIt() throws Exception {
+        when(requestService.getParticipationRequestByUserId(1L, CONFIRMED, null, null, null))
+                .thenReturn(List.of(request(2L, CONFIRMED)));
+
+        mockMvc.perform(get("/users/1/requests")
+                        .param("status", "CONFIRMED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].status").value("CONFIRMED"));
+    }
+
+    @Test
+    void getParticipationRequest_withMalformedCursor_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/users/1/requests")
+                        .param("cursor", "bm8tc2VwYXJhdG9y"))
+                .andExpect(status().isBadRequest());
+
+        verify(requestService, never()).getParticipationRequestByUserId(anyLong(), any(), any(), any(), any());
+    }
+
+    @Test
+    void streamParticipationRequest_writesOneJsonLinePerRequest() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ParticipationRequestDto> consumer = invocation.getArgument(2);
+            consumer.accept(request(1L, PENDING));
+            consumer.accept(request(2L, PENDING));
+            return null;
+        }).when(requestService).streamParticipationRequestByUserId(eq(1L), eq(PENDING), any());
+
+        mockMvc.perform(get("/users/1/requests/stream")
+                        .param("status", "PENDING"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(Ndjson.MEDIA_TYPE))
+                .andExpect(content().string(line(1L) + line(2L)));
+    }
+
+    @Test
+    void streamParticipationRequest_withoutRequests_returnsEmptyNdjson() throws Exception {
+        mockMvc.perform(get("/users/1/requests/stream"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(Ndjson.MEDIA_TYPE))
+                .andExpect(content().string(""));
+
+        verify(requestService).streamParticipationRequestByUserId(eq(1L), isNull(), any());
+    }
+
+    private static ParticipationRequestDto request(Long id, EventRequestStatus status) {
+        return new ParticipationRequestDto(CREATED, 10L, id, 1L, status);
+    }
+
+    private static String line(Long id) {
+        return "{\"created\":\"2030-01-01 10:00:00\",\"event\":10,\"id\":" + id
+                + ",\"requester\":1,\"status\":\"PENDING\"}\n";
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.requests.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.category.model.Category;
+import ru.practicum.events.model.Event;
+import ru.practicum.locations.model.Location;
+import ru.practicum.requests.dto.ParticipationRequestCreateResult;
+import ru.practicum.users.model.User;
+import ru.practicum.util.enam.EventRequestStatus;
+import ru.practicum.util.enam.EventState;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.util.enam.EventRequestStatus.CONFIRMED;
+import static ru.practicum.util.enam.EventRequestStatus.PENDING;
+import static ru.practicum.util.enam.EventRequestStatus.WAITING;
+import static ru.practicum.util.enam.EventState.PUBLISHED;
+
+@DataJpaTest(properties = "spring.sql.init.schema-locations=classpath:schema.sql,classpath:schema-postgresql.sql")
+@AutoConfigureEmbeddedDatabase(type = POSTGRES, provider = ZONKY)
+@Import(RequestInsertRepository.class)
+class RequestInsertRepositoryTest {
+
+    @Autowired
+    private RequestInsertRepository requestInsertRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User initiator;
+    private int users;
+
+    @BeforeEach
+    public void beforeEach() {
+        initiator = persistUser();
+    }
+
+    @Test
+    void insert_createsRequestInGivenStatusWithoutTakingSeat() {
+        Event event = persistEvent(PUBLISHED, 2, false);
+
+        ParticipationRequestCreateResult inserted = insert(persistUser(), event, CONFIRMED).orElseThrow();
+        ParticipationRequestCreateResult waiting = insert(persistUser(), event, WAITING).orElseThrow();
+
+        assertTrue(inserted.isCreated());
+        assertEquals(CONFIRMED, inserted.getRequest().getStatus());
+        assertEquals(WAITING, waiting.getRequest().getStatus());
+        assertEquals(0, confirmedRequests(event));
+    }
+
+    @Test
+    void insert_returnsExistingRequestWhenRepeated() {
+        Event event = persistEvent(PUBLISHED, 2, true);
+        User requester = persistUser();
+        ParticipationRequestCreateResult first = insert(requester, event, PENDING).orElseThrow();
+
+        ParticipationRequestCreateResult repeated = insert(requester, event, CONFIRMED).orElseThrow();
+
+        assertFalse(repeated.isCreated());
+        assertEquals(first.getRequest().getId(), repeated.getRequest().getId());
+        assertEquals(PENDING, repeated.getRequest().getStatus());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM requests WHERE event_id = ?",
+                Long.class, event.getId()));
+    }
+
+    @Test
+    void insert_rejectsInitiatorUnpublishedEventAndUnknownUser() {
+        Event published = persistEvent(PUBLISHED, 0, false);
+        Event pending = persistEvent(EventState.PENDING, 0, false);
+
+        assertEquals(Optional.empty(), insert(initiator, published, CONFIRMED));
+        assertEquals(Optional.empty(), insert(persistUser(), pending, CONFIRMED));
+        assertEquals(Optional.empty(), requestInsertRepository.insert(-1L, published.getId(), CONFIRMED,
+                LocalDateTime.now()));
+    }
+
+    private Optional<ParticipationRequestCreateResult> insert(User requester, Event event,
+                                                              EventRequestStatus status) {
+        return requestInsertRepository.insert(requester.getId(), event.getId(), status, LocalDateTime.now());
+    }
+
+    private long confirmedRequests(Event event) {
+        return jdbcTemplate.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?", Long.class,
+                event.getId());
+    }
+
+    private User persistUser() {
+        User user = new User();
+        user.setName("user " + users);
+        user.setEmail("user" + users++ + "@mail.ru");
+        User persisted = em.persist(user);
+        em.flush();
+        return persisted;
+    }
+
+    private Event persistEvent(EventState state, int participantLimit, boolean requestModeration) {
+        Category category = new Category();
+        category.setName("category " + users++);
+        em.persist(category);
+
+        Event event = new Event();
+        event.setTitle("event");
+        event.setAnnotation("annotation of event");
+        event.setDescription("description of event");
+        event.setCategory(category);
+        event.setInitiator(initiator);
+        event.setLocation(em.persist(new Location(null, 55.75f, 37.62f)));
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setPaid(false);
+        event.setParticipantLimit(participantLimit);
+        event.setRequestModeration(requestModeration);
+        event.setState(state);
+        Event persisted = em.persist(event);
+        em.flush();
+        return persisted;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.requests.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.springframework.test.context.TestPropertySource;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+
+/**
+ * Runs the same cases against PostgreSQL, where every change is a single UPDATE ... RETURNING statement.
+ */
+@AutoConfigureEmbeddedDatabase(type = POSTGRES, provider = ZONKY)
+@TestPropertySource(properties = {
+        "requests.status.returning.enabled=true",
+        "spring.sql.init.schema-locations=classpath:schema.sql,classpath:schema-postgresql.sql"
+})
+class RequestStatusPostgresRepositoryTest extends RequestStatusRepositoryTest {
+}
@@ -0,0 +1,154 @@
+package ru.practicum.requests.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.category.model.Category;
+import ru.practicum.events.model.Event;
+import ru.practicum.locations.model.Location;
+import ru.practicum.requests.model.ParticipationRequest;
+import ru.practicum.users.model.User;
+import ru.practicum.util.enam.EventRequestStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.util.enam.EventRequestStatus.CANCELED;
+import static ru.practicum.util.enam.EventRequestStatus.CONFIRMED;
+import static ru.practicum.util.enam.EventRequestStatus.PENDING;
+import static ru.practicum.util.enam.EventRequestStatus.REJECTED;
+import static ru.practicum.util.enam.EventRequestStatus.WAITING;
+import static ru.practicum.util.enam.EventState.PUBLISHED;
+
+/**
+ * Runs the SELECT ... FOR UPDATE statements used where UPDATE ... RETURNING is not available.
+ */
+@DataJpaTest
+@Import(RequestStatusRepository.class)
+class RequestStatusRepositoryTest {
+
+    @Autowired
+    private RequestStatusRepository requestStatusRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User initiator;
+    private int users;
+
+    @BeforeEach
+    public void beforeEach() {
+        initiator = persistUser();
+    }
+
+    @Test
+    void updateStatus_changesOnlyRequestsInGivenStatus() {
+        Event event = persistEvent(0, 0);
+        List<Long> ids = persistRequests(event, PENDING, 2);
+        ids.addAll(persistRequests(event, CONFIRMED, 1));
+
+        List<Long> rejected = requestStatusRepository.updatePendingStatus(event.getId(), ids, REJECTED);
+
+        assertEquals(ids.subList(0, 2), rejected);
+        assertEquals(List.of(REJECTED, REJECTED, CONFIRMED), statuses(ids));
+    }
+
+    @Test
+    void updateStatus_confirmsWaitingRequestsOnly() {
+        Event event = persistEvent(5, 0);
+        List<Long> ids = persistRequests(event, WAITING, 2);
+        ids.addAll(persistRequests(event, REJECTED, 1));
+
+        List<Long> confirmed = requestStatusRepository.updateStatus(event.getId(), ids, WAITING, CONFIRMED);
+
+        assertEquals(ids.subList(0, 2), confirmed);
+        assertEquals(List.of(CONFIRMED, CONFIRMED, REJECTED), statuses(ids));
+    }
+
+    @Test
+    void cancel_returnsPreviousStatusOnce() {
+        Event event = persistEvent(1, 1);
+        ParticipationRequest request = persistRequest(event, persistUser(), CONFIRMED);
+
+        assertEquals(Optional.of(CONFIRMED), requestStatusRepository.cancel(request.getId(),
+                request.getRequester().getId()));
+        assertEquals(Optional.empty(), requestStatusRepository.cancel(request.getId(),
+                request.getRequester().getId()));
+        assertEquals(List.of(CANCELED), statuses(List.of(request.getId())));
+    }
+
+    @Test
+    void cancel_ignoresRequestOfAnotherUser() {
+        Event event = persistEvent(1, 0);
+        ParticipationRequest request = persistRequest(event, persistUser(), PENDING);
+
+        assertEquals(Optional.empty(), requestStatusRepository.cancel(request.getId(), initiator.getId()));
+        assertEquals(List.of(PENDING), statuses(List.of(request.getId())));
+    }
+
+    private List<EventRequestStatus> statuses(List<Long> ids) {
+        List<EventRequestStatus> statuses = new ArrayList<>();
+        ids.forEach(id -> statuses.add(EventRequestStatus.valueOf(jdbcTemplate.queryForObject(
+                "SELECT status FROM requests WHERE id = ?", String.class, id))));
+        return statuses;
+    }
+
+    private List<Long> persistRequests(Event event, EventRequestStatus status, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(persistRequest(event, persistUser(), status).getId());
+        }
+        return ids;
+    }
+
+    private ParticipationRequest persistRequest(Event event, User requester, EventRequestStatus status) {
+        ParticipationRequest request = new ParticipationRequest();
+        request.setEvent(event);
+        request.setRequester(requester);
+        request.setStatus(status);
+        ParticipationRequest persisted = em.persist(request);
+        em.flush();
+        return persisted;
+    }
+
+    private User persistUser() {
+        User user = new User();
+        user.setName("user " + users);
+        user.setEmail("user" + users++ + "@mail.ru");
+        return em.persist(user);
+    }
+
+    private Event persistEvent(int participantLimit, long confirmedRequests) {
+        Category category = new Category();
+        category.setName("category " + users);
+        em.persist(category);
+
+        Event event = new Event();
+        event.setTitle("event");
+        event.setAnnotation("annotation of event");
+        event.setDescription("description of event");
+        event.setCategory(category);
+        event.setInitiator(initiator);
+        event.setLocation(em.persist(new Location(null, 55.75f, 37.62f)));
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setPaid(false);
+        event.setParticipantLimit(participantLimit);
+        event.setRequestModeration(true);
+        event.setState(PUBLISHED);
+        Event persisted = em.persist(event);
+        em.flush();
+        jdbcTemplate.update("UPDATE events SET confirmed_requests = ? WHERE id = ?", confirmedRequests,
+                persisted.getId());
+        return persisted;
+    }
+}
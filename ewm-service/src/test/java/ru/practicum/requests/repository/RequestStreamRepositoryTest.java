@@ -0,0 +1,131 @@
+package ru.practicum.requests.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.category.model.Category;
+import ru.practicum.events.model.Event;
+import ru.practicum.locations.model.Location;
+import ru.practicum.requests.dto.ParticipationRequestDto;
+import ru.practicum.requests.model.ParticipationRequest;
+import ru.practicum.users.model.User;
+import ru.practicum.util.enam.EventRequestStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.util.enam.EventRequestStatus.CONFIRMED;
+import static ru.practicum.util.enam.EventRequestStatus.PENDING;
+import static ru.practicum.util.enam.EventState.PUBLISHED;
+
+@DataJpaTest(properties = "requests.stream.fetch-size=2")
+@Import(RequestStreamRepository.class)
+class RequestStreamRepositoryTest {
+
+    @Autowired
+    private RequestStreamRepository requestStreamRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private User initiator;
+    private int users;
+
+    @BeforeEach
+    public void beforeEach() {
+        initiator = persistUser();
+    }
+
+    @Test
+    void streamByEventId_readsRequestsOfEventInIdOrder() {
+        Event event = persistEvent();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(persistRequest(event, persistUser(), i % 2 == 0 ? PENDING : CONFIRMED).getId());
+        }
+        persistRequest(persistEvent(), persistUser(), PENDING);
+
+        List<ParticipationRequestDto> streamed = new ArrayList<>();
+        requestStreamRepository.streamByEventId(event.getId(), null, streamed::add);
+
+        assertEquals(ids, ids(streamed));
+        assertEquals(event.getId(), streamed.get(0).getEvent());
+    }
+
+    @Test
+    void streamByEventId_filtersByStatus() {
+        Event event = persistEvent();
+        Long pending = persistRequest(event, persistUser(), PENDING).getId();
+        persistRequest(event, persistUser(), CONFIRMED);
+
+        List<ParticipationRequestDto> streamed = new ArrayList<>();
+        requestStreamRepository.streamByEventId(event.getId(), PENDING, streamed::add);
+
+        assertEquals(List.of(pending), ids(streamed));
+        assertEquals(PENDING, streamed.get(0).getStatus());
+    }
+
+    @Test
+    void streamByRequesterId_readsRequestsOfRequesterOnly() {
+        User requester = persistUser();
+        Long first = persistRequest(persistEvent(), requester, PENDING).getId();
+        Long second = persistRequest(persistEvent(), requester, CONFIRMED).getId();
+        persistRequest(persistEvent(), persistUser(), PENDING);
+
+        List<ParticipationRequestDto> streamed = new ArrayList<>();
+        requestStreamRepository.streamByRequesterId(requester.getId(), null, streamed::add);
+
+        assertEquals(List.of(first, second), ids(streamed));
+        assertEquals(requester.getId(), streamed.get(1).getRequester());
+    }
+
+    private List<Long> ids(List<ParticipationRequestDto> requests) {
+        List<Long> ids = new ArrayList<>();
+        requests.forEach(request -> ids.add(request.getId()));
+        return ids;
+    }
+
+    private ParticipationRequest persistRequest(Event event, User requester, EventRequestStatus status) {
+        ParticipationRequest request = new ParticipationRequest();
+        request.setEvent(event);
+        request.setRequester(requester);
+        request.setStatus(status);
+        ParticipationRequest persisted = em.persist(request);
+        em.flush();
+        return persisted;
+    }
+
+    private User persistUser() {
+        User user = new User();
+        user.setName("user " + users);
+        user.setEmail("user" + users++ + "@mail.ru");
+        return em.persist(user);
+    }
+
+    private Event persistEvent() {
+        Category category = new Category();
+        category.setName("category " + users++);
+        em.persist(category);
+
+        Event event = new Event();
+        event.setTitle("event");
+        event.setAnnotation("annotation of event");
+        event.setDescription("description of event");
+        event.setCategory(category);
+        event.setInitiator(initiator);
+        event.setLocation(em.persist(new Location(null, 55.75f, 37.62f)));
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setPaid(false);
+        event.setParticipantLimit(0);
+        event.setRequestModeration(true);
+        event.setState(PUBLISHED);
+        Event persisted = em.persist(event);
+        em.flush();
+        return persisted;
+    }
+}
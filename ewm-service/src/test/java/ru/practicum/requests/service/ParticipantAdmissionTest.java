@@ -0,0 +1,324 @@
+package ru.practicum.requests.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.events.repository.EventRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@Slf4j
+class ParticipantAdmissionTest {
+
+    private static final Long EVENT_ID = 1L;
+    private static final int LIMIT = 10;
+    private static final int HOT_LIMIT = 10_000;
+    private static final int THREADS = 16;
+
+    private final PlatformTransactionManager transactionManager = new SynchronizingTransactionManager();
+    private EventRepository eventRepository;
+    private ParticipantAdmission participantAdmission;
+    private int limit;
+    private long confirmed;
+    private long takeNanos;
+    private int updates;
+
+    @BeforeEach
+    public void beforeEach() {
+        limit = LIMIT;
+        confirmed = 0;
+        takeNanos = 0;
+        updates = 0;
+        eventRepository = eventRepository(false);
+        participantAdmission = participantAdmission(60_000);
+    }
+
+    @Test
+    void admit_grantsOnlyRemainingSeats() {
+        assertEquals(4, admit(participantAdmission, 4));
+        assertEquals(6, admit(participantAdmission, 10));
+        assertEquals(Optional.empty(), participantAdmission.admit(EVENT_ID, LIMIT, 1, seats -> seats,
+                seats -> seats));
+
+        assertEquals(LIMIT, confirmed());
+        assertFalse(participantAdmission.hasFreeSeats(EVENT_ID, LIMIT));
+    }
+
+    @Test
+    void admit_turnsFullEventAwayWithoutTouchingDatabase() {
+        admit(participantAdmission, LIMIT);
+
+        assertEquals(0, admit(participantAdmission, 1));
+        assertEquals(0, admit(participantAdmission, 1));
+        verify(eventRepository, times(1)).takeSeats(eq(EVENT_ID), anyLong());
+        verify(eventRepository, times(1)).findConfirmedRequestsById(EVENT_ID);
+    }
+
+    @Test
+    void admit_givesSeatsTheWorkDidNotUseBack() {
+        Optional<String> result = participantAdmission.admit(EVENT_ID, LIMIT, 4, seats -> "used " + (seats - 1),
+                used -> 3);
+
+        assertEquals(Optional.of("used 3"), result);
+        assertEquals(3, confirmed());
+        assertEquals(LIMIT - 3, admit(participantAdmission, LIMIT));
+    }
+
+    @Test
+    void admit_givesSeatsBackWhenTransactionRollsBack() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertEquals(LIMIT, admit(participantAdmission, LIMIT));
+            assertFalse(participantAdmission.hasFreeSeats(EVENT_ID, LIMIT));
+            status.setRollbackOnly();
+        });
+        confirmed = 0;
+
+        assertTrue(participantAdmission.hasFreeSeats(EVENT_ID, LIMIT));
+        assertEquals(LIMIT, admit(participantAdmission, LIMIT));
+    }
+
+    @Test
+    void admit_learnsSeatsTakenByAnotherInstanceFromDatabase() {
+        ParticipantAdmission other = participantAdmission(60_000);
+        assertTrue(participantAdmission.hasFreeSeats(EVENT_ID, LIMIT));
+        admit(other, LIMIT - 2);
+
+        assertEquals(2, admit(participantAdmission, 5));
+        assertEquals(LIMIT, confirmed());
+        assertFalse(participantAdmission.hasFreeSeats(EVENT_ID, LIMIT));
+    }
+
+    @Test
+    void admit_seedsAgainAfterReseedInterval() {
+        participantAdmission = participantAdmission(0);
+        admit(participantAdmission, LIMIT);
+        confirmed = LIMIT - 1;
+
+        assertEquals(1, admit(participantAdmission, 1));
+    }
+
+    @Test
+    void admit_seedsAgainWhenParticipantLimitChanges() {
+        admit(participantAdmission, LIMIT);
+        limit = LIMIT + 2;
+
+        assertEquals(2, participantAdmission.admit(EVENT_ID, limit, 5, seats -> seats, seats -> seats)
+                .orElse(0));
+    }
+
+    @Test
+    void release_givesSeatsBackAndReportsEventFreed() {
+        admit(participantAdmission, LIMIT);
+
+        participantAdmission.release(EVENT_ID, 2);
+
+        assertEquals(LIMIT - 2, confirmed());
+        assertEquals(List.of(EVENT_ID), participantAdmission.pollFreed());
+        assertTrue(participantAdmission.pollFreed().isEmpty());
+        assertEquals(2, admit(participantAdmission, 5));
+    }
+
+    @Test
+    void release_ofNoSeatsDoesNothing() {
+        participantAdmission.release(EVENT_ID, 0);
+
+        verify(eventRepository, never()).releaseSeats(eq(EVENT_ID), anyLong());
+        assertTrue(participantAdmission.pollFreed().isEmpty());
+    }
+
+    @Test
+    void reseed_forgetsInMemoryCounts() {
+        admit(participantAdmission, LIMIT);
+        confirmed = 0;
+        assertFalse(participantAdmission.hasFreeSeats(EVENT_ID, LIMIT));
+
+        participantAdmission.reseed();
+
+        assertTrue(participantAdmission.hasFreeSeats(EVENT_ID, LIMIT));
+    }
+
+    @Test
+    void admit_neverExceedsLimitAcrossInstances() throws Exception {
+        List<ParticipantAdmission> instances = List.of(participantAdmission, participantAdmission(60_000));
+
+        List<Integer> admitted = runConcurrently(thread -> {
+            ParticipantAdmission instance = instances.get(thread % instances.size());
+            int seats = 0;
+            for (int i = 0; i < 1_000; i++) {
+                seats += admit(instance, 1 + i % 3);
+            }
+            return seats;
+        });
+
+        assertEquals(LIMIT, admitted.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(LIMIT, confirmed());
+    }
+
+    @Test
+    void admit_neverExceedsLimitOnHotEvent() throws Exception {
+        limit = HOT_LIMIT;
+        takeNanos = TimeUnit.MICROSECONDS.toNanos(50);
+        eventRepository = eventRepository(true);
+        participantAdmission = participantAdmission(60_000);
+        AtomicInteger rows = new AtomicInteger();
+        int attempts = 5_000;
+
+        long start = System.nanoTime();
+        List<Integer> admitted = runConcurrently(thread -> {
+            int seats = 0;
+            for (int i = 0; i < attempts; i++) {
+                seats += participantAdmission.admit(EVENT_ID, HOT_LIMIT, 1, rows::addAndGet, used -> 1)
+                        .isPresent() ? 1 : 0;
+            }
+            return seats;
+        });
+        long elapsedNanos = System.nanoTime() - start;
+
+        int total = admitted.stream().mapToInt(Integer::intValue).sum();
+        log.info("{} admission attempts on one event at {} per second, {} seats taken with {} updates",
+                THREADS * attempts, THREADS * attempts * TimeUnit.SECONDS.toNanos(1) / elapsedNanos, total,
+                updates());
+        assertEquals(HOT_LIMIT, total);
+        assertEquals(HOT_LIMIT, rows.get());
+        assertEquals(HOT_LIMIT, confirmed());
+        assertTrue(updates() < HOT_LIMIT, "seats of concurrent requests should be taken together");
+    }
+
+    private int admit(ParticipantAdmission instance, int seats) {
+        return instance.admit(EVENT_ID, limit, seats, granted -> granted, granted -> granted).orElse(0);
+    }
+
+    private ParticipantAdmission participantAdmission(long reseedAfterMs) {
+        return new ParticipantAdmission(eventRepository, transactionManager, new SimpleMeterRegistry(),
+                reseedAfterMs);
+    }
+
+    private EventRepository eventRepository(boolean stubOnly) {
+        EventRepository repository = stubOnly
+                ? mock(EventRepository.class, withSettings().stubOnly())
+                : mock(EventRepository.class);
+        when(repository.takeSeats(eq(EVENT_ID), anyLong())).thenAnswer(invocation ->
+                takeSeats(invocation.getArgument(1)));
+        when(repository.releaseSeats(eq(EVENT_ID), anyLong())).thenAnswer(invocation ->
+                releaseSeats(invocation.getArgument(1)));
+        when(repository.findConfirmedRequestsById(EVENT_ID)).thenAnswer(invocation ->
+                Optional.of(confirmed()));
+        return repository;
+    }
+
+    private synchronized int takeSeats(long seats) {
+        updates++;
+        if (takeNanos > 0) {
+            LockSupport.parkNanos(takeNanos);
+        }
+        if (confirmed + seats > limit) {
+            return 0;
+        }
+        confirmed += seats;
+        return 1;
+    }
+
+    private synchronized int releaseSeats(long seats) {
+        if (confirmed < seats) {
+            return 0;
+        }
+        confirmed -= seats;
+        return 1;
+    }
+
+    private synchronized long confirmed() {
+        return confirmed;
+    }
+
+    private synchronized int updates() {
+        return updates;
+    }
+
+    private List<Integer> runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit((Callable<Integer>) () -> {
+                    start.await();
+                    return task.run(thread);
+                }));
+            }
+            start.countDown();
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadTask {
+        int run(int thread);
+    }
+
+    /**
+     * Runs transaction synchronizations like a real transaction manager, without a resource behind it.
+     */
+    private static class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package ru.practicum.requests.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.handler.ValidateException;
+import ru.practicum.requests.repository.RequestInsertRepository;
+import ru.practicum.requests.repository.RequestStatusRepository;
+import ru.practicum.requests.repository.RequestStreamRepository;
+import ru.practicum.util.enam.EventRequestStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.util.enam.EventRequestStatus.CONFIRMED;
+import static ru.practicum.util.enam.EventRequestStatus.WAITING;
+
+/**
+ * Runs concurrent requests for one event against PostgreSQL without a test transaction, so the batches taking seats
+ * commit for real.
+ */
+@DataJpaTest(properties = {
+        "requests.create.single-statement.enabled=true",
+        "requests.status.returning.enabled=true",
+        "spring.sql.init.schema-locations=classpath:schema.sql,classpath:schema-postgresql.sql"
+})
+@AutoConfigureEmbeddedDatabase(type = POSTGRES, provider = ZONKY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({RequestServiceImpl.class, ParticipantAdmission.class, RequestInsertRepository.class,
+        RequestStatusRepository.class, RequestStreamRepository.class, SimpleMeterRegistry.class})
+class RequestAdmissionPostgresTest {
+
+    private static final int LIMIT = 50;
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 25;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long initiatorId;
+    private int users;
+
+    @BeforeEach
+    public void beforeEach() {
+        initiatorId = insertUser();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        jdbcTemplate.update("DELETE FROM requests");
+        jdbcTemplate.update("DELETE FROM events");
+        jdbcTemplate.update("DELETE FROM locations");
+        jdbcTemplate.update("DELETE FROM categories");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void createParticipationRequest_neverConfirmsMoreThanLimitOnHotEvent() throws Exception {
+        long eventId = insertEvent();
+        List<Long> requesters = insertUsers(THREADS * REQUESTS_PER_THREAD);
+        Map<String, Integer> outcomes = new ConcurrentHashMap<>();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                Long requesterId = requesters.get(thread * REQUESTS_PER_THREAD + i);
+                String outcome;
+                try {
+                    outcome = requestService.createParticipationRequest(requesterId, eventId, false).getRequest()
+                            .getStatus().name();
+                } catch (ValidateException e) {
+                    outcome = "REFUSED";
+                }
+                outcomes.merge(outcome, 1, Integer::sum);
+            }
+        });
+
+        assertEquals(Map.of(CONFIRMED.name(), LIMIT, "REFUSED", requesters.size() - LIMIT), outcomes);
+        assertEquals(LIMIT, countRequests(eventId, CONFIRMED));
+        assertEquals(LIMIT, confirmedRequests(eventId));
+    }
+
+    @Test
+    void createParticipationRequest_waitlistsEveryoneAfterLimitOnHotEvent() throws Exception {
+        long eventId = insertEvent();
+        List<Long> requesters = insertUsers(THREADS * REQUESTS_PER_THREAD);
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                requestService.createParticipationRequest(requesters.get(thread * REQUESTS_PER_THREAD + i), eventId,
+                        true);
+            }
+        });
+
+        assertEquals(LIMIT, countRequests(eventId, CONFIRMED));
+        assertEquals(requesters.size() - LIMIT, countRequests(eventId, WAITING));
+        assertEquals(LIMIT, confirmedRequests(eventId));
+    }
+
+    private long countRequests(long eventId, EventRequestStatus status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM requests WHERE event_id = ? AND status = ?",
+                Long.class, eventId, status.name());
+    }
+
+    private long confirmedRequests(long eventId) {
+        return jdbcTemplate.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?", Long.class,
+                eventId);
+    }
+
+    private List<Long> insertUsers(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(insertUser());
+        }
+        return ids;
+    }
+
+    private long insertUser() {
+        users++;
+        return jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, ?) RETURNING id",
+                Long.class, "user" + users + "@mail.ru", "user " + users);
+    }
+
+    private long insertEvent() {
+        long categoryId = jdbcTemplate.queryForObject("INSERT INTO categories (name) VALUES (?) RETURNING id",
+                Long.class, "category " + users++);
+        long locationId = jdbcTemplate.queryForObject("INSERT INTO locations (lat, lon) VALUES (55.75, 37.62) " +
+                "RETURNING id", Long.class);
+        return jdbcTemplate.queryForObject("INSERT INTO events (annotation, category_id, description, event_date, " +
+                        "location_id, participant_limit, request_moderation, confirmed_requests, title, " +
+                        "initiator_id, state, created_on) " +
+                        "VALUES ('annotation of event', ?, 'description of event', NOW() + INTERVAL '1 day', " +
+                        "?, ?, FALSE, 0, 'event', ?, 'PUBLISHED', NOW()) RETURNING id",
+                Long.class, categoryId, locationId, LIMIT, initiatorId);
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    start.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
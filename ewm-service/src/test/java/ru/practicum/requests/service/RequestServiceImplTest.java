@@ -0,0 +1,294 @@
+package ru.practicum.requests.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.category.model.Category;
+import ru.practicum.events.model.Event;
+import ru.practicum.handler.ValidateException;
+import ru.practicum.locations.model.Location;
+import ru.practicum.requests.dto.EventRequestStatusUpdateRequest;
+import ru.practicum.requests.dto.EventRequestStatusUpdateResult;
+import ru.practicum.requests.dto.ParticipationRequestCreateResult;
+import ru.practicum.requests.dto.ParticipationRequestDto;
+import ru.practicum.requests.repository.RequestInsertRepository;
+import ru.practicum.requests.repository.RequestStatusRepository;
+import ru.practicum.requests.repository.RequestStreamRepository;
+import ru.practicum.users.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.util.enam.EventRequestStatus.CANCELED;
+import static ru.practicum.util.enam.EventRequestStatus.CONFIRMED;
+import static ru.practicum.util.enam.EventRequestStatus.PENDING;
+import static ru.practicum.util.enam.EventRequestStatus.WAITING;
+import static ru.practicum.util.enam.EventState.PUBLISHED;
+
+@DataJpaTest
+@Import({RequestServiceImpl.class, ParticipantAdmission.class, RequestInsertRepository.class,
+        RequestStatusRepository.class, RequestStreamRepository.class, SimpleMeterRegistry.class})
+class RequestServiceImplTest {
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private ParticipantAdmission participantAdmission;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User initiator;
+    private int users;
+
+    @BeforeEach
+    public void beforeEach() {
+        initiator = persistUser();
+    }
+
+    @Test
+    void createParticipationRequest_countsConfirmedSeatsInTheSameTransaction() {
+        Long eventId = persistEvent(2, false).getId();
+
+        assertConfirmed(createRequest(eventId, false));
+        assertConfirmed(createRequest(eventId, false));
+
+        assertEquals(2, confirmedRequests(eventId));
+        assertThrows(ValidateException.class, () -> createRequest(eventId, false));
+    }
+
+    @Test
+    void createParticipationRequest_isLimitedByDatabaseWhenGateKnowsNothing() {
+        Long eventId = persistEvent(1, false).getId();
+        createRequest(eventId, false);
+
+        participantAdmission.reseed();
+        em.clear();
+
+        assertThrows(ValidateException.class, () -> createRequest(eventId, false));
+        assertEquals(1, confirmedRequests(eventId));
+    }
+
+    @Test
+    void createParticipationRequest_returnsExistingRequestWhenRepeated() {
+        Long eventId = persistEvent(1, false).getId();
+        User requester = persistUser();
+        ParticipationRequestCreateResult first = requestService.createParticipationRequest(requester.getId(),
+                eventId, false);
+        em.flush();
+        em.clear();
+
+        ParticipationRequestCreateResult repeated = requestService.createParticipationRequest(requester.getId(),
+                eventId, false);
+
+        assertTrue(first.isCreated());
+        assertFalse(repeated.isCreated());
+        assertEquals(first.getRequest().getId(), repeated.getRequest().getId());
+        assertConfirmed(repeated.getRequest());
+        assertEquals(1, confirmedRequests(eventId));
+    }
+
+    @Test
+    void createParticipationRequest_refusesToRepeatCanceledRequest() {
+        Long eventId = persistEvent(2, false).getId();
+        ParticipationRequestDto request = createRequest(eventId, false);
+        requestService.updateStatusParticipationRequest(request.getRequester(), request.getId());
+        em.flush();
+        em.clear();
+
+        assertThrows(ValidateException.class, () -> requestService.createParticipationRequest(
+                request.getRequester(), eventId, false));
+        assertEquals(0, confirmedRequests(eventId));
+    }
+
+    @Test
+    void updateEventRequestStatusPrivate_confirmsOnlyRemainingSeats() {
+        Long eventId = persistEvent(2, true).getId();
+        List<Long> requestIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            requestIds.add(createRequest(eventId, false).getId());
+        }
+
+        EventRequestStatusUpdateResult result = updateStatus(eventId, requestIds,
+                EventRequestStatusUpdateRequest.EventRequestStatus.CONFIRMED);
+
+        assertEquals(requestIds.subList(0, 2), ids(result.getConfirmedRequests()));
+        assertEquals(requestIds.subList(2, 3), ids(result.getRejectedRequests()));
+        assertEquals(2, confirmedRequests(eventId));
+    }
+
+    @Test
+    void updateStatusParticipationRequest_releasesSeatOnlyOnce() {
+        Long eventId = persistEvent(2, false).getId();
+        createRequest(eventId, false);
+        ParticipationRequestDto request = createRequest(eventId, false);
+
+        ParticipationRequestDto canceled = requestService.updateStatusParticipationRequest(request.getRequester(),
+                request.getId());
+        em.clear();
+        ParticipationRequestDto canceledAgain = requestService.updateStatusParticipationRequest(
+                request.getRequester(), request.getId());
+
+        assertEquals(CANCELED, canceled.getStatus());
+        assertEquals(CANCELED, canceledAgain.getStatus());
+        assertEquals(1, confirmedRequests(eventId));
+    }
+
+    @Test
+    void updateStatusParticipationRequest_keepsSeatsOfPendingRequest() {
+        Long eventId = persistEvent(2, true).getId();
+        ParticipationRequestDto request = createRequest(eventId, false);
+        assertEquals(PENDING, request.getStatus());
+
+        requestService.updateStatusParticipationRequest(request.getRequester(), request.getId());
+
+        assertEquals(0, confirmedRequests(eventId));
+        assertEquals(CANCELED.name(), jdbcTemplate.queryForObject("SELECT status FROM requests WHERE id = ?",
+                String.class, request.getId()));
+    }
+
+    @Test
+    void promoteWaitlist_unmoderatedEvent_confirmsWaitingRequestsIntoReleasedSeats() {
+        Long eventId = persistEvent(1, false).getId();
+        ParticipationRequestDto confirmed = createRequest(eventId, false);
+        ParticipationRequestDto first = createRequest(eventId, true);
+        ParticipationRequestDto second = createRequest(eventId, true);
+        assertEquals(WAITING, first.getStatus());
+        assertEquals(0, requestService.promoteWaitlist(eventId, 10));
+
+        requestService.updateStatusParticipationRequest(confirmed.getRequester(), confirmed.getId());
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        em.clear();
+
+        assertEquals(List.of(eventId), participantAdmission.pollFreed());
+        assertEquals(1, requestService.promoteWaitlist(eventId, 10));
+        assertEquals(CONFIRMED.name(), status(first.getId()));
+        assertEquals(WAITING.name(), status(second.getId()));
+        assertEquals(1, confirmedRequests(eventId));
+    }
+
+    @Test
+    void promoteWaitlist_moderatedEvent_movesWaitingRequestsToPendingWithinFreeSeats() {
+        Long eventId = persistEvent(2, true).getId();
+        ParticipationRequestDto confirmed = createRequest(eventId, false);
+        updateStatus(eventId, List.of(confirmed.getId(), createRequest(eventId, false).getId()),
+                EventRequestStatusUpdateRequest.EventRequestStatus.CONFIRMED);
+        ParticipationRequestDto first = createRequest(eventId, true);
+        ParticipationRequestDto second = createRequest(eventId, true);
+        ParticipationRequestDto third = createRequest(eventId, true);
+        assertEquals(WAITING, first.getStatus());
+
+        requestService.updateStatusParticipationRequest(confirmed.getRequester(), confirmed.getId());
+        em.clear();
+
+        assertEquals(1, requestService.promoteWaitlist(eventId, 10));
+        assertEquals(0, requestService.promoteWaitlist(eventId, 10));
+        assertEquals(PENDING.name(), status(first.getId()));
+        assertEquals(WAITING.name(), status(second.getId()));
+        assertEquals(WAITING.name(), status(third.getId()));
+        assertEquals(1, confirmedRequests(eventId));
+    }
+
+    @Test
+    void promoteWaitlist_promotesNoMoreThanBatchSize() {
+        Long eventId = persistEvent(2, false).getId();
+        createRequest(eventId, false);
+        ParticipationRequestDto canceled = createRequest(eventId, false);
+        List<Long> waiting = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            waiting.add(createRequest(eventId, true).getId());
+        }
+        requestService.updateStatusParticipationRequest(canceled.getRequester(), canceled.getId());
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        em.clear();
+
+        assertEquals(1, requestService.promoteWaitlist(eventId, 1));
+        assertEquals(0, requestService.promoteWaitlist(eventId, 1));
+        assertEquals(CONFIRMED.name(), status(waiting.get(0)));
+        assertEquals(WAITING.name(), status(waiting.get(1)));
+        assertEquals(2, confirmedRequests(eventId));
+    }
+
+    private ParticipationRequestDto createRequest(Long eventId, boolean waitlist) {
+        ParticipationRequestDto request = requestService.createParticipationRequest(persistUser().getId(), eventId,
+                waitlist).getRequest();
+        em.flush();
+        em.clear();
+        return request;
+    }
+
+    private EventRequestStatusUpdateResult updateStatus(Long eventId, List<Long> requestIds,
+                                                        EventRequestStatusUpdateRequest.EventRequestStatus status) {
+        EventRequestStatusUpdateResult result = requestService.updateEventRequestStatusPrivate(initiator.getId(),
+                eventId, new EventRequestStatusUpdateRequest(Set.copyOf(requestIds), status));
+        em.clear();
+        return result;
+    }
+
+    private long confirmedRequests(Long eventId) {
+        em.flush();
+        return jdbcTemplate.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?", Long.class,
+                eventId);
+    }
+
+    private String status(Long requestId) {
+        em.flush();
+        return jdbcTemplate.queryForObject("SELECT status FROM requests WHERE id = ?", String.class, requestId);
+    }
+
+    private List<Long> ids(List<ParticipationRequestDto> requests) {
+        List<Long> ids = new ArrayList<>();
+        requests.forEach(request -> ids.add(request.getId()));
+        return ids;
+    }
+
+    private User persistUser() {
+        User user = new User();
+        user.setName("user " + users);
+        user.setEmail("user" + users++ + "@mail.ru");
+        return em.persist(user);
+    }
+
+    private Event persistEvent(int participantLimit, boolean requestModeration) {
+        Category category = new Category();
+        category.setName("category " + users);
+        em.persist(category);
+
+        Event event = new Event();
+        event.setTitle("event");
+        event.setAnnotation("annotation of event");
+        event.setDescription("description of event");
+        event.setCategory(category);
+        event.setInitiator(initiator);
+        event.setLocation(em.persist(new Location(null, 55.75f, 37.62f)));
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setPaid(false);
+        event.setParticipantLimit(participantLimit);
+        event.setRequestModeration(requestModeration);
+        event.setState(PUBLISHED);
+        Event persisted = em.persist(event);
+        em.flush();
+        return persisted;
+    }
+
+    private static void assertConfirmed(ParticipationRequestDto request) {
+        assertEquals(CONFIRMED, request.getStatus());
+    }
+}
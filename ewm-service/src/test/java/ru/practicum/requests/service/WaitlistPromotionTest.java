@@ -0,0 +1,85 @@
+package ru.practicum.requests.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.requests.repository.RequestRepository;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static ru.practicum.util.enam.EventRequestStatus.WAITING;
+
+class WaitlistPromotionTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    private ParticipantAdmission participantAdmission;
+    private RequestService requestService;
+    private RequestRepository requestRepository;
+
+    @BeforeEach
+    public void beforeEach() {
+        participantAdmission = mock(ParticipantAdmission.class);
+        requestService = mock(RequestService.class);
+        requestRepository = mock(RequestRepository.class);
+        when(participantAdmission.pollFreed()).thenReturn(List.of());
+        when(requestRepository.findEventIdsByStatus(WAITING)).thenReturn(List.of());
+    }
+
+    @Test
+    void promote_drainsFreedEventInBatches() {
+        when(participantAdmission.pollFreed()).thenReturn(List.of(1L));
+        when(requestService.promoteWaitlist(1L, BATCH_SIZE)).thenReturn(BATCH_SIZE, BATCH_SIZE, 1);
+
+        promotion(60_000).promote();
+
+        verify(requestService, times(3)).promoteWaitlist(1L, BATCH_SIZE);
+    }
+
+    @Test
+    void promote_rescansWaitingEventsOncePerInterval() {
+        when(requestRepository.findEventIdsByStatus(WAITING)).thenReturn(List.of(1L, 2L));
+        when(participantAdmission.pollFreed()).thenReturn(List.of(2L), List.of(3L));
+        WaitlistPromotion promotion = promotion(60_000);
+
+        promotion.promote();
+        promotion.promote();
+
+        verify(requestRepository, times(1)).findEventIdsByStatus(WAITING);
+        verify(requestService, times(1)).promoteWaitlist(1L, BATCH_SIZE);
+        verify(requestService, times(1)).promoteWaitlist(2L, BATCH_SIZE);
+        verify(requestService, times(1)).promoteWaitlist(3L, BATCH_SIZE);
+    }
+
+    @Test
+    void promote_rescansAgainAfterInterval() {
+        WaitlistPromotion promotion = promotion(0);
+
+        promotion.promote();
+        promotion.promote();
+
+        verify(requestRepository, times(2)).findEventIdsByStatus(WAITING);
+        verify(requestService, never()).promoteWaitlist(anyLong(), anyInt());
+    }
+
+    @Test
+    void promote_whenOneEventFails_promotesTheOthers() {
+        when(requestRepository.findEventIdsByStatus(WAITING)).thenReturn(List.of(1L, 2L));
+        when(requestService.promoteWaitlist(1L, BATCH_SIZE)).thenThrow(new IllegalStateException("deadlock"));
+
+        promotion(60_000).promote();
+
+        verify(requestService).promoteWaitlist(2L, BATCH_SIZE);
+    }
+
+    private WaitlistPromotion promotion(long rescanIntervalMs) {
+        return new WaitlistPromotion(participantAdmission, requestService, requestRepository, BATCH_SIZE,
+                rescanIntervalMs);
+    }
+}
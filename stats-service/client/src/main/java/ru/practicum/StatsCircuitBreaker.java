@@ -0,0 +1,95 @@
+package ru.practicum;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@Slf4j
+@PropertySource(value = {"classpath:statsServiceClient.properties"})
+public class StatsCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long openedAt;
+
+    public StatsCircuitBreaker(@Value("${stats.client.circuit-breaker.failure-threshold}") int failureThreshold,
+                               @Value("${stats.client.circuit-breaker.open-ms}") long openMs,
+                               MeterRegistry meterRegistry) {
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        Gauge.builder("stats.client.circuit.open", state, current -> current.get() == State.CLOSED ? 0 : 1)
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!allowRequest()) {
+                return Mono.error(new StatsServerUnavailableException("Stats server circuit is open"));
+            }
+            return call
+                    .doOnSuccess(value -> onSuccess())
+                    .doOnError(this::onError)
+                    .doOnCancel(this::onCancel);
+        });
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    private boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        return current == State.OPEN
+                && System.currentTimeMillis() - openedAt >= openMs
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN);
+    }
+
+    private void onSuccess() {
+        failures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            log.info("Stats server circuit closed");
+        }
+    }
+
+    private void onError(Throwable e) {
+        if (e instanceof WebClientResponseException
+                && ((WebClientResponseException) e).getStatusCode().is4xxClientError()) {
+            onSuccess();
+            return;
+        }
+        if (state.get() == State.HALF_OPEN || failures.incrementAndGet() >= failureThreshold) {
+            open();
+        }
+    }
+
+    private void onCancel() {
+        if (state.get() == State.HALF_OPEN) {
+            open();
+        }
+    }
+
+    private void open() {
+        openedAt = System.currentTimeMillis();
+        if (state.getAndSet(State.OPEN) != State.OPEN) {
+            log.warn("Stats server circuit opened for {} ms", openMs);
+        }
+    }
+}
@@ -1,31 +1,120 @@
 package ru.practicum;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+import ru.practicum.dto.HitBatchResultDto;
 import ru.practicum.dto.StatsHitDto;
 import ru.practicum.dto.ViewStatsDto;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Service
 @Slf4j
 @PropertySource(value = {"classpath:statsServiceClient.properties"})
 public class StatsClient {
 
+    private final ConnectionProvider connectionProvider;
     private final WebClient client;
+    private final StatsHitBuffer buffer;
+    private final boolean async;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Duration batchTimeout;
+    private final Duration getTimeout;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final StatsCircuitBreaker circuitBreaker;
+    private final Counter sentHits;
+    private final Counter failedHits;
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stats-hit-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running = true;
 
-    public StatsClient(@Value("${stats.server.url}") String baseUrl) {
-        this.client = WebClient.create(baseUrl);
+    public StatsClient(@Value("${stats.server.url}") String baseUrl,
+                       @Value("${stats.client.async}") boolean async,
+                       @Value("${stats.client.batch.size}") int batchSize,
+                       @Value("${stats.client.batch.flush-interval-ms}") long flushIntervalMs,
+                       @Value("${stats.client.get-timeout-ms}") long getTimeoutMs,
+                       @Value("${stats.client.retry.max-retries}") int maxRetries,
+                       @Value("${stats.client.retry.backoff-ms}") long retryBackoffMs,
+                       @Value("${stats.client.pool.max-connections}") int maxConnections,
+                       @Value("${stats.client.pool.pending-acquire-timeout-ms}") long pendingAcquireTimeoutMs,
+                       StatsHitBuffer buffer,
+                       StatsCircuitBreaker circuitBreaker,
+                       MeterRegistry meterRegistry) {
+        this.connectionProvider = ConnectionProvider.builder("stats-client")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .build();
+        this.client = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+        this.async = async;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.batchTimeout = Duration.ofMillis(flushIntervalMs * 10);
+        this.getTimeout = Duration.ofMillis(getTimeoutMs);
+        this.maxRetries = maxRetries;
+        this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+        this.buffer = buffer;
+        this.circuitBreaker = circuitBreaker;
+        this.sentHits = meterRegistry.counter("stats.client.hits.sent");
+        this.failedHits = meterRegistry.counter("stats.client.hits.failed");
+    }
+
+    @PostConstruct
+    public void startFlusher() {
+        if (async) {
+            flusher.execute(this::flushLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.shutdown();
+        if (!flusher.awaitTermination(flushIntervalMs + batchTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            flusher.shutdownNow();
+        }
+        connectionProvider.dispose();
     }
 
     public ResponseEntity<List<ViewStatsDto>> getStats(String start, String end, List<String> uris, Boolean unique) {
-        return this.client.get()
+        return getStatsAsync(start, end, uris, unique)
+                .collectList()
+                .map(ResponseEntity::ok)
+                .block();
+    }
+
+    public Flux<ViewStatsDto> getStatsAsync(String start, String end, List<String> uris, Boolean unique) {
+        return resilient(this.client.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/stats")
                         .queryParam("start", start)
@@ -35,21 +124,124 @@ public class StatsClient {
                         .build())
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .toEntityList(ViewStatsDto.class)
+                .bodyToFlux(ViewStatsDto.class)
+                .collectList()
                 .doOnNext(c -> log.info("Get stats with param: start date {}, end date {}, uris {}, unique {}",
-                        start, end, uris, unique))
+                        start, end, uris, unique)), getTimeout, true)
+                .flatMapIterable(Function.identity());
+    }
+
+    public List<ViewStatsDto> getTotalStats(List<String> uris, Boolean unique) {
+        return getTotalStatsAsync(uris, unique)
+                .collectList()
                 .block();
     }
 
+    public Flux<ViewStatsDto> getTotalStatsAsync(List<String> uris, Boolean unique) {
+        return resilient(totalStats(uris, unique), getTimeout, true)
+                .flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Same as {@link #getTotalStatsAsync(List, Boolean)}, but gives up after {@code timeout} without retrying,
+     * for callers that have an answer of their own to fall back on.
+     */
+    public Flux<ViewStatsDto> getTotalStatsAsync(List<String> uris, Boolean unique, Duration timeout) {
+        return resilient(totalStats(uris, unique), timeout, false)
+                .flatMapIterable(Function.identity());
+    }
+
     public void saveStats(String app, String uri, String ip, LocalDateTime timestamp) {
+        StatsHitDto hit = new StatsHitDto(app, uri, ip, timestamp);
+        if (async) {
+            buffer.offer(hit);
+            return;
+        }
+
+        saveStatsAsync(app, uri, ip, timestamp).block();
+    }
 
-        this.client.post()
+    public Mono<Void> saveStatsAsync(String app, String uri, String ip, LocalDateTime timestamp) {
+        return resilient(this.client.post()
                 .uri("/hit")
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(new StatsHitDto(app, uri, ip, timestamp))
                 .retrieve()
                 .toBodilessEntity()
-                .doOnNext(c -> log.info("Save stats"))
-                .block();
+                .doOnNext(c -> log.info("Save stats")), getTimeout, false)
+                .then();
+    }
+
+    private void flushLoop() {
+        List<StatsHitDto> batch = new ArrayList<>(batchSize);
+        boolean interrupted = false;
+        try {
+            while (running) {
+                buffer.drainTo(batch, batchSize, flushIntervalMs);
+                if (!batch.isEmpty()) {
+                    sendBatch(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        buffer.drainTo(batch);
+        if (!batch.isEmpty()) {
+            sendBatch(batch);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sendBatch(List<StatsHitDto> batch) {
+        try {
+            HitBatchResultDto result = resilient(this.client.post()
+                    .uri("/hit/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(batch)
+                    .retrieve()
+                    .bodyToMono(HitBatchResultDto.class), batchTimeout, false)
+                    .block();
+            int accepted = result != null ? result.getAccepted() : 0;
+            sentHits.increment(accepted);
+            log.info("Saved batch of {} stats hits", accepted);
+        } catch (RuntimeException e) {
+            failedHits.increment(batch.size());
+            log.warn("Failed to save batch of {} stats hits: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private Mono<List<ViewStatsDto>> totalStats(List<String> uris, Boolean unique) {
+        return this.client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/stats/count")
+                        .queryParam("uris", uris)
+                        .queryParam("unique", unique)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToFlux(ViewStatsDto.class)
+                .collectList()
+                .doOnNext(c -> log.info("Get total stats with param: uris {}, unique {}", uris, unique));
+    }
+
+    private <T> Mono<T> resilient(Mono<T> call, Duration timeout, boolean idempotent) {
+        Mono<T> protectedCall = circuitBreaker.protect(call.timeout(timeout));
+        if (!idempotent) {
+            return protectedCall;
+        }
+        return protectedCall.retryWhen(Retry.backoff(maxRetries, retryBackoff)
+                .filter(this::isRetryable)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private boolean isRetryable(Throwable e) {
+        if (e instanceof StatsServerUnavailableException) {
+            return false;
+        }
+        return !(e instanceof WebClientResponseException
+                && ((WebClientResponseException) e).getStatusCode().is4xxClientError());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package ru.practicum;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.StatsHitDto;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+@PropertySource(value = {"classpath:statsServiceClient.properties"})
+public class StatsHitBuffer {
+
+    private final BlockingQueue<StatsHitDto> queue;
+    private final HitOverflowPolicy overflowPolicy;
+    private final long offerTimeoutMs;
+    private final Counter droppedHits;
+
+    public StatsHitBuffer(@Value("${stats.client.queue.capacity}") int capacity,
+                          @Value("${stats.client.queue.overflow-policy}") HitOverflowPolicy overflowPolicy,
+                          @Value("${stats.client.queue.offer-timeout-ms}") long offerTimeoutMs,
+                          MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.droppedHits = Counter.builder("stats.client.hits.dropped")
+                .tag("policy", overflowPolicy.name())
+                .register(meterRegistry);
+        Gauge.builder("stats.client.queue.size", queue, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    public void offer(StatsHitDto hit) {
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                if (!queue.offer(hit)) {
+                    drop(hit);
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(hit)) {
+                    StatsHitDto oldest = queue.poll();
+                    if (oldest != null) {
+                        drop(oldest);
+                    }
+                }
+                break;
+            case BLOCK:
+                try {
+                    if (!queue.offer(hit, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        drop(hit);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    drop(hit);
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown overflow policy: " + overflowPolicy);
+        }
+    }
+
+    public void drainTo(List<StatsHitDto> batch, int maxSize, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (batch.size() < maxSize) {
+            queue.drainTo(batch, maxSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxSize || remaining <= 0) {
+                return;
+            }
+            StatsHitDto hit = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (hit == null) {
+                return;
+            }
+            batch.add(hit);
+        }
+    }
+
+    public void drainTo(List<StatsHitDto> batch) {
+        queue.drainTo(batch);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private void drop(StatsHitDto hit) {
+        droppedHits.increment();
+        log.debug("Stats hit queue is full, dropped hit for uri {}", hit.getUri());
+    }
+}
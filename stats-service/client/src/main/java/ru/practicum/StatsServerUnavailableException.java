@@ -0,0 +1,8 @@
+package ru.practicum;
+
+public class StatsServerUnavailableException extends RuntimeException {
+
+    public StatsServerUnavailableException(String message) {
+        super(message);
+    }
+}
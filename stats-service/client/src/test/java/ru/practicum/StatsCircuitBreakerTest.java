@@ -0,0 +1,85 @@
+package ru.practicum;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatsCircuitBreakerTest {
+
+    private static final Mono<String> FAILING = Mono.error(new IllegalStateException("connection refused"));
+
+    @Test
+    void protect_opensAfterThresholdAndRejectsWithoutCalling() {
+        StatsCircuitBreaker circuitBreaker = circuitBreaker(60_000);
+        fail(circuitBreaker, 2);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(StatsCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(StatsServerUnavailableException.class, () -> circuitBreaker
+                .protect(Mono.fromCallable(calls::incrementAndGet))
+                .block());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void protect_halfOpenClosesOnSuccess() {
+        StatsCircuitBreaker circuitBreaker = circuitBreaker(0);
+        fail(circuitBreaker, 2);
+
+        assertEquals("ok", circuitBreaker.protect(Mono.just("ok")).block());
+        assertEquals(StatsCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void protect_halfOpenReopensOnFailure() {
+        StatsCircuitBreaker circuitBreaker = circuitBreaker(0);
+        fail(circuitBreaker, 2);
+
+        fail(circuitBreaker, 1);
+
+        assertEquals(StatsCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void protect_halfOpenReopensOnTimeout() {
+        StatsCircuitBreaker circuitBreaker = circuitBreaker(0);
+        fail(circuitBreaker, 2);
+
+        assertThrows(RuntimeException.class, () -> circuitBreaker.protect(Mono.never())
+                .timeout(Duration.ofMillis(10))
+                .block());
+
+        assertEquals(StatsCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void protect_clientErrorsDoNotOpen() {
+        StatsCircuitBreaker circuitBreaker = circuitBreaker(60_000);
+        Mono<String> notFound = Mono.error(WebClientResponseException.create(HttpStatus.NOT_FOUND.value(),
+                "Not Found", null, null, null));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(WebClientResponseException.class, () -> circuitBreaker.protect(notFound).block());
+        }
+
+        assertEquals(StatsCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private StatsCircuitBreaker circuitBreaker(long openMs) {
+        return new StatsCircuitBreaker(2, openMs, new SimpleMeterRegistry());
+    }
+
+    private void fail(StatsCircuitBreaker circuitBreaker, int times) {
+        for (int i = 0; i < times; i++) {
+            assertThrows(IllegalStateException.class, () -> circuitBreaker.protect(FAILING).block());
+        }
+    }
+}
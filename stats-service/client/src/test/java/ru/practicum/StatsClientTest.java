@@ -0,0 +1,163 @@
+package ru.practicum;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.dto.ViewStatsDto;
+
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatsClientTest {
+
+    private MockWebServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private StatsClient statsClient;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void afterEach() throws Exception {
+        if (statsClient != null) {
+            statsClient.stop();
+        }
+        server.shutdown();
+    }
+
+    @Test
+    void saveStats_flushesBufferedHitsInOneBatch() throws Exception {
+        statsClient = client(2, 5_000);
+        server.enqueue(json("{\"accepted\":2}"));
+        statsClient.startFlusher();
+
+        saveHit("/events/1");
+        saveHit("/events/2");
+
+        RecordedRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals("/hit/batch", request.getPath());
+        String body = request.getBody().readUtf8();
+        assertTrue(body.contains("/events/1") && body.contains("/events/2"));
+        statsClient.stop();
+        assertCounter("stats.client.hits.sent", 2);
+    }
+
+    @Test
+    void stop_sendsHitsStillQueued() throws Exception {
+        statsClient = client(100, 200);
+        server.enqueue(json("{\"accepted\":3}"));
+        saveHit("/events/1");
+        saveHit("/events/2");
+        saveHit("/events/3");
+        statsClient.startFlusher();
+
+        statsClient.stop();
+
+        assertEquals(1, server.getRequestCount());
+        assertTrue(server.takeRequest().getBody().readUtf8().contains("/events/3"));
+        assertCounter("stats.client.hits.sent", 3);
+    }
+
+    @Test
+    void saveStats_countsHitsOfFailedBatch() throws Exception {
+        statsClient = client(2, 5_000);
+        server.enqueue(new MockResponse().setResponseCode(500));
+        statsClient.startFlusher();
+
+        saveHit("/events/1");
+        saveHit("/events/2");
+        statsClient.stop();
+
+        assertEquals(1, server.getRequestCount());
+        assertCounter("stats.client.hits.failed", 2);
+        assertCounter("stats.client.hits.sent", 0);
+    }
+
+    @Test
+    void getTotalStats_retriesServerErrors() {
+        statsClient = client(100, 5_000);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(json("[{\"app\":\"ewm-main-service\",\"uri\":\"/events/1\",\"hits\":4}]"));
+
+        List<ViewStatsDto> stats = statsClient.getTotalStats(List.of("/events/1"), true);
+
+        assertEquals(3, server.getRequestCount());
+        assertEquals(4, stats.get(0).getHits());
+    }
+
+    @Test
+    void getTotalStats_doesNotRetryClientErrors() {
+        statsClient = client(100, 5_000);
+        server.enqueue(new MockResponse().setResponseCode(400));
+
+        assertThrows(WebClientResponseException.BadRequest.class,
+                () -> statsClient.getTotalStats(List.of("/events/1"), true));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void getTotalStatsAsync_withTimeout_doesNotRetry() {
+        statsClient = client(100, 5_000);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(json("[]"));
+
+        assertThrows(WebClientResponseException.ServiceUnavailable.class, () -> statsClient
+                .getTotalStatsAsync(List.of("/events/1"), true, Duration.ofSeconds(1))
+                .collectList()
+                .block());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void saveStatsAsync_doesNotRetry() {
+        statsClient = client(100, 5_000);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(201));
+
+        assertThrows(WebClientResponseException.ServiceUnavailable.class, () -> statsClient
+                .saveStatsAsync("ewm-main-service", "/events/1", "192.168.0.1", LocalDateTime.now())
+                .block());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    private StatsClient client(int batchSize, long flushIntervalMs) {
+        StatsHitBuffer buffer = new StatsHitBuffer(100, HitOverflowPolicy.DROP_OLDEST, 0, meterRegistry);
+        StatsCircuitBreaker circuitBreaker = new StatsCircuitBreaker(5, 10_000, meterRegistry);
+        return new StatsClient(server.url("/").toString(), true, batchSize, flushIntervalMs, 1_000, 2, 10,
+                10, 1_000, buffer, circuitBreaker, meterRegistry);
+    }
+
+    private void saveHit(String uri) {
+        statsClient.saveStats("ewm-main-service", uri, "192.168.0.1", LocalDateTime.now());
+    }
+
+    private MockResponse json(String body) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(body);
+    }
+
+    private void assertCounter(String name, double expected) {
+        assertEquals(expected, meterRegistry.get(name).counter().count());
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.dto.StatsHitDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatsHitBufferTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void offer_dropNewest_keepsQueuedHits() {
+        StatsHitBuffer buffer = buffer(2, HitOverflowPolicy.DROP_NEWEST, 0);
+
+        offer(buffer, "/events/1", "/events/2", "/events/3");
+
+        assertEquals(List.of("/events/1", "/events/2"), drain(buffer));
+        assertEquals(1, dropped());
+    }
+
+    @Test
+    void offer_dropOldest_keepsLatestHits() {
+        StatsHitBuffer buffer = buffer(2, HitOverflowPolicy.DROP_OLDEST, 0);
+
+        offer(buffer, "/events/1", "/events/2", "/events/3");
+
+        assertEquals(List.of("/events/2", "/events/3"), drain(buffer));
+        assertEquals(1, dropped());
+    }
+
+    @Test
+    void offer_block_dropsHitAfterTimeout() {
+        StatsHitBuffer buffer = buffer(1, HitOverflowPolicy.BLOCK, 50);
+
+        long start = System.nanoTime();
+        offer(buffer, "/events/1", "/events/2");
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(List.of("/events/1"), drain(buffer));
+        assertEquals(1, dropped());
+    }
+
+    @Test
+    void offer_block_waitsForFreeSlot() throws Exception {
+        StatsHitBuffer buffer = buffer(1, HitOverflowPolicy.BLOCK, 5_000);
+        offer(buffer, "/events/1");
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> offer(buffer, "/events/2"));
+        List<StatsHitDto> batch = new ArrayList<>();
+        buffer.drainTo(batch, 2, 5_000);
+        blocked.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, batch.size() + buffer.size());
+        assertEquals(0, dropped());
+    }
+
+    @Test
+    void drainTo_returnsPartialBatchAfterTimeout() throws InterruptedException {
+        StatsHitBuffer buffer = buffer(10, HitOverflowPolicy.DROP_OLDEST, 0);
+        offer(buffer, "/events/1", "/events/2");
+
+        List<StatsHitDto> batch = new ArrayList<>();
+        buffer.drainTo(batch, 5, 20);
+
+        assertEquals(2, batch.size());
+        assertEquals(0, buffer.size());
+    }
+
+    private StatsHitBuffer buffer(int capacity, HitOverflowPolicy policy, long offerTimeoutMs) {
+        return new StatsHitBuffer(capacity, policy, offerTimeoutMs, meterRegistry);
+    }
+
+    private void offer(StatsHitBuffer buffer, String... uris) {
+        for (String uri : uris) {
+            buffer.offer(new StatsHitDto("ewm-main-service", uri, "192.168.0.1", LocalDateTime.now()));
+        }
+    }
+
+    private List<String> drain(StatsHitBuffer buffer) {
+        List<StatsHitDto> batch = new ArrayList<>();
+        buffer.drainTo(batch);
+        List<String> uris = new ArrayList<>();
+        batch.forEach(hit -> uris.add(hit.getUri()));
+        return uris;
+    }
+
+    private double dropped() {
+        return meterRegistry.get("stats.client.hits.dropped").counter().count();
+    }
+}
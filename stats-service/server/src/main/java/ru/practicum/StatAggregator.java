@@ -0,0 +1,153 @@
+package ru.practicum;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.model.HyperLogLog;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.StatHit;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps rollups, sketches and visitors off the ingest path. Hits are counted in memory once their transaction
+ * commits and written by {@link #flush()} every stats.aggregate.flush-ms, so each sketch row is locked once per flush
+ * rather than once per batch. They lag the stat table by up to one flush, and counts still pending when the process
+ * dies are lost.
+ */
+@Component
+@Slf4j
+public class StatAggregator {
+
+    private final StatRollupRepository rollupRepository;
+    private final StatSketchRepository sketchRepository;
+    private final StatVisitorRepository visitorRepository;
+    private final boolean rollupEnabled;
+    private final boolean sketchEnabled;
+    private final boolean visitorEnabled;
+
+    private Pending pending = new Pending();
+
+    public StatAggregator(StatRollupRepository rollupRepository,
+                          StatSketchRepository sketchRepository,
+                          StatVisitorRepository visitorRepository,
+                          @Value("${stats.rollup.enabled}") boolean rollupEnabled,
+                          @Value("${stats.sketch.enabled}") boolean sketchEnabled,
+                          @Value("${stats.visitor.enabled}") boolean visitorEnabled) {
+        this.rollupRepository = rollupRepository;
+        this.sketchRepository = sketchRepository;
+        this.visitorRepository = visitorRepository;
+        this.rollupEnabled = rollupEnabled;
+        this.sketchEnabled = sketchEnabled;
+        this.visitorEnabled = visitorEnabled;
+    }
+
+    public void addHits(List<StatHit> hits) {
+        if (!rollupEnabled && !sketchEnabled && !visitorEnabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            collect(hits);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                collect(hits);
+            }
+        });
+    }
+
+    /**
+     * Runs in its own transaction; when that transaction rolls back, the flushed counts go back to memory and are
+     * written by the next flush.
+     */
+    @Scheduled(fixedDelayString = "${stats.aggregate.flush-ms}")
+    @EventListener(ContextClosedEvent.class)
+    @Transactional
+    public void flush() {
+        Pending flushed = take();
+        if (flushed.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        log.error("Failed to flush {} rollups, {} sketches and {} visitors, " +
+                                        "keeping them for the next flush",
+                                flushed.rollups.size(), flushed.sketches.size(), flushed.visitors.size());
+                        restore(flushed);
+                    }
+                }
+            });
+        }
+        if (!flushed.rollups.isEmpty()) {
+            rollupRepository.addIncrements(flushed.rollups);
+        }
+        if (!flushed.sketches.isEmpty()) {
+            sketchRepository.mergeSketches(flushed.sketches);
+        }
+        if (!flushed.visitors.isEmpty()) {
+            visitorRepository.addVisitors(flushed.visitors);
+        }
+        log.info("Flushed {} rollups, {} sketches and {} visitors", flushed.rollups.size(), flushed.sketches.size(),
+                flushed.visitors.size());
+    }
+
+    private synchronized void collect(List<StatHit> hits) {
+        for (StatHit hit : hits) {
+            if (rollupEnabled) {
+                for (RollupGranularity granularity : RollupGranularity.values()) {
+                    pending.rollups.merge(RollupKey.of(granularity, hit), 1L, Long::sum);
+                }
+            }
+            if (sketchEnabled) {
+                for (RollupGranularity granularity : StatSketchRepository.SKETCH_LEVELS) {
+                    pending.sketches.computeIfAbsent(RollupKey.of(granularity, hit), key -> new HyperLogLog())
+                            .add(hit.getIp());
+                }
+            }
+            if (visitorEnabled) {
+                pending.visitors.add(List.of(hit.getApp(), hit.getUri(), hit.getIp()));
+            }
+        }
+    }
+
+    private synchronized Pending take() {
+        Pending taken = pending;
+        pending = new Pending();
+        return taken;
+    }
+
+    private synchronized void restore(Pending flushed) {
+        flushed.rollups.forEach((key, hits) -> pending.rollups.merge(key, hits, Long::sum));
+        flushed.sketches.forEach((key, sketch) -> pending.sketches.merge(key, sketch, HyperLogLog::merge));
+        pending.visitors.addAll(flushed.visitors);
+    }
+
+    private static class Pending {
+
+        private final Map<RollupKey, Long> rollups = new TreeMap<>();
+
+        private final Map<RollupKey, HyperLogLog> sketches = new TreeMap<>();
+
+        private final Set<List<String>> visitors = new HashSet<>();
+
+        private boolean isEmpty() {
+            return rollups.isEmpty() && sketches.isEmpty() && visitors.isEmpty();
+        }
+    }
+}
@@ -1,26 +1,54 @@
 package ru.practicum;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.dto.HitBatchResultDto;
 import ru.practicum.dto.StatsHitDto;
 import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.exeption.PayloadTooLargeException;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import static ru.practicum.dto.Constant.DATE_TIME_PATTERN;
 
 @RestController
 @RequiredArgsConstructor
+@Validated
 @Slf4j
 public class StatController {
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final int MAX_COUNT_URIS = 100;
+
     private final StatService service;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${stats.hit.stream.max-bytes}")
+    private long maxStreamBytes;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
@@ -28,13 +56,121 @@ public class StatController {
         service.saveStat(statsHitDto);
     }
 
+    @PostMapping(value = "/hit/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public HitBatchResultDto saveStatsHits(@RequestBody List<@Valid StatsHitDto> statsHitDtos) {
+        return new HitBatchResultDto(service.saveStats(statsHitDtos));
+    }
+
+    @PostMapping(value = "/hit/batch", consumes = APPLICATION_NDJSON)
+    @ResponseStatus(HttpStatus.CREATED)
+    public HitBatchResultDto saveStatsHitsStream(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > maxStreamBytes) {
+            throw new PayloadTooLargeException("Batch body is larger than " + maxStreamBytes + " bytes");
+        }
+
+        try (MappingIterator<StatsHitDto> statsHitDtos = objectMapper.readerFor(StatsHitDto.class)
+                .readValues(new LimitedInputStream(request.getInputStream(), maxStreamBytes))) {
+            return new HitBatchResultDto(service.saveStatsStream(new ValidatingIterator(statsHitDtos)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
     @GetMapping("/stats")
     public Collection<ViewStatsDto> getViewStats(
             @RequestParam(value = "start") @DateTimeFormat(pattern = DATE_TIME_PATTERN) LocalDateTime start,
             @RequestParam(value = "end") @DateTimeFormat(pattern = DATE_TIME_PATTERN) LocalDateTime end,
             @RequestParam(value = "uris", defaultValue = "") List<String> uris,
-            @RequestParam(value = "unique", defaultValue = "false") Boolean unique
+            @RequestParam(value = "unique", defaultValue = "false") Boolean unique,
+            @RequestParam(value = "approx", defaultValue = "false") Boolean approx
     ) {
+        if (unique && approx) {
+            return service.getApproximateUniqueStats(start, end, uris);
+        }
         return service.getStats(start, end, uris, unique);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/stats/count")
+    public Collection<ViewStatsDto> getTotalViewStats(
+            @RequestParam(value = "uris") @NotEmpty @Size(max = MAX_COUNT_URIS) List<String> uris,
+            @RequestParam(value = "unique", defaultValue = "false") Boolean unique,
+            @RequestParam(value = "approx", defaultValue = "false") Boolean approx
+    ) {
+        return service.getTotalStats(uris, unique, approx);
+    }
+
+    /**
+     * Parses and validates hits one at a time while the service saves them, so a malformed or invalid line
+     * fails the whole stream inside the service transaction. Read errors are passed through unchecked and
+     * rethrown as they are by the controller.
+     */
+    private class ValidatingIterator implements Iterator<StatsHitDto> {
+
+        private final MappingIterator<StatsHitDto> statsHitDtos;
+
+        ValidatingIterator(MappingIterator<StatsHitDto> statsHitDtos) {
+            this.statsHitDtos = statsHitDtos;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return statsHitDtos.hasNextValue();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public StatsHitDto next() {
+            StatsHitDto statsHitDto;
+            try {
+                statsHitDto = statsHitDtos.nextValue();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Set<ConstraintViolation<StatsHitDto>> violations = validator.validate(statsHitDto);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+            return statsHitDto;
+        }
+    }
+
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long read;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            read += n;
+            if (read > maxBytes) {
+                throw new PayloadTooLargeException("Batch body is larger than " + maxBytes + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(value = "stats.partition.enabled", havingValue = "true")
+@Slf4j
+public class StatPartitionManager {
+
+    private static final String PARTITION_PREFIX = "stat_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String FIND_PARTITIONS = "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'stat' AND c.relname LIKE '" + PARTITION_PREFIX + "%'";
+
+    private static final String DELETE_EXPIRED_ROLLUPS = "DELETE FROM stat_rollup " +
+            "WHERE granularity IN ('MINUTE', 'HOUR') AND bucket < ?";
+
+    private static final String DELETE_EXPIRED_SKETCHES = "DELETE FROM stat_sketch " +
+            "WHERE granularity = 'HOUR' AND bucket < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int daysAhead;
+    private final int retentionDays;
+    private final boolean archive;
+
+    public StatPartitionManager(JdbcTemplate jdbcTemplate,
+                                @Value("${stats.partition.days-ahead}") int daysAhead,
+                                @Value("${stats.partition.retention-days}") int retentionDays,
+                                @Value("${stats.partition.archive}") boolean archive) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+        this.archive = archive;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${stats.partition.cron}")
+    @Transactional
+    public void maintainPartitions() {
+        LocalDate today = LocalDate.now();
+        List<String> partitions = jdbcTemplate.queryForList(FIND_PARTITIONS, String.class);
+        for (int i = 0; i <= daysAhead; i++) {
+            if (!partitions.contains(partitionName(today.plusDays(i)))) {
+                createPartition(today.plusDays(i));
+            }
+        }
+        removeExpiredPartitions(partitions, today.minusDays(retentionDays));
+        removeExpiredBuckets(today.minusDays(retentionDays));
+    }
+
+    /**
+     * Hits dated past the newest partition land in stat_default, and PostgreSQL refuses to add a partition whose
+     * range still has rows there, so those rows are moved into the new table before it is attached.
+     */
+    private void createPartition(LocalDate day) {
+        String partition = partitionName(day);
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        try {
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE stat INCLUDING DEFAULTS)");
+            jdbcTemplate.update("WITH moved AS (DELETE FROM stat_default " +
+                    "WHERE created >= ? AND created < ? RETURNING *) " +
+                    "INSERT INTO " + partition + " SELECT * FROM moved", from, to);
+            jdbcTemplate.execute("ALTER TABLE stat ATTACH PARTITION " + partition + " " +
+                    "FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        } catch (DataAccessException e) {
+            log.error("Failed to create stat partition for {}: {}", day, e.getMessage());
+            throw new IllegalStateException("Failed to create stat partition for " + day, e);
+        }
+    }
+
+    private void removeExpiredPartitions(List<String> partitions, LocalDate oldestKept) {
+        for (String partition : partitions) {
+            LocalDate day;
+            try {
+                day = LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            if (!day.isBefore(oldestKept)) {
+                continue;
+            }
+            if (archive) {
+                jdbcTemplate.execute("ALTER TABLE stat DETACH PARTITION " + partition);
+                log.info("Detached expired stat partition {} for archiving", partition);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Dropped expired stat partition {}", partition);
+            }
+        }
+    }
+
+    private void removeExpiredBuckets(LocalDate oldestKept) {
+        Timestamp cutoff = Timestamp.valueOf(oldestKept.atStartOfDay());
+        int rollups = jdbcTemplate.update(DELETE_EXPIRED_ROLLUPS, cutoff);
+        int sketches = jdbcTemplate.update(DELETE_EXPIRED_SKETCHES, cutoff);
+        log.info("Removed {} minute and hour rollups and {} hour sketches before {}", rollups, sketches, oldestKept);
+    }
+
+    private String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+    }
+}
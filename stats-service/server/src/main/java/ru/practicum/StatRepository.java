@@ -39,4 +39,18 @@ public interface StatRepository extends JpaRepository<StatHit, Integer> {
             "group by s.app, s.uri " +
             "order by count(s.ip) desc")
     List<ViewStatsDto> getAllStatsByUris(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    @Query("select new ru.practicum.dto.ViewStatsDto(s.app, s.uri, count(distinct s.ip))" +
+            "from StatHit as s " +
+            "where s.uri in :uris " +
+            "group by s.app, s.uri " +
+            "order by count(distinct(s.ip)) desc")
+    List<ViewStatsDto> getTotalStatsByUrisByUniqueIp(List<String> uris);
+
+    @Query("select new ru.practicum.dto.ViewStatsDto(s.app, s.uri, count(s.ip))" +
+            "from StatHit as s " +
+            "where s.uri in :uris " +
+            "group by s.app, s.uri " +
+            "order by count(s.ip) desc")
+    List<ViewStatsDto> getTotalStatsByUris(List<String> uris);
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package ru.practicum;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.RollupRange;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+@Repository
+@RequiredArgsConstructor
+public class StatRollupRepository {
+
+    private static final String UPSERT_ROLLUP = "INSERT INTO stat_rollup (granularity, bucket, app, uri, hits) " +
+            "VALUES (:granularity, :bucket, :app, :uri, :hits) " +
+            "ON CONFLICT (granularity, bucket, app, uri) DO UPDATE SET hits = stat_rollup.hits + EXCLUDED.hits";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void addIncrements(Map<RollupKey, Long> increments) {
+        MapSqlParameterSource[] batch = increments.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("granularity", entry.getKey().getGranularity().name())
+                        .addValue("bucket", Timestamp.valueOf(entry.getKey().getBucket()))
+                        .addValue("app", entry.getKey().getApp())
+                        .addValue("uri", entry.getKey().getUri())
+                        .addValue("hits", entry.getValue()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(UPSERT_ROLLUP, batch);
+    }
+
+    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        List<RollupRange> ranges = RollupRange.split(start, end.plusSeconds(1));
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String uriFilter = "";
+        if (!uris.isEmpty()) {
+            uriFilter = " AND uri IN (:uris)";
+            params.addValue("uris", uris);
+        }
+
+        StringJoiner union = new StringJoiner(" UNION ALL ");
+        for (int i = 0; i < ranges.size(); i++) {
+            RollupRange range = ranges.get(i);
+            params.addValue("from" + i, Timestamp.valueOf(range.getFrom()));
+            params.addValue("to" + i, Timestamp.valueOf(range.getTo()));
+            if (range.isRaw()) {
+                union.add("SELECT app, uri, COUNT(*) AS hits FROM stat " +
+                        "WHERE created >= :from" + i + " AND created < :to" + i + uriFilter +
+                        " GROUP BY app, uri");
+            } else {
+                params.addValue("granularity" + i, range.getGranularity().name());
+                union.add("SELECT app, uri, hits FROM stat_rollup " +
+                        "WHERE granularity = :granularity" + i +
+                        " AND bucket >= :from" + i + " AND bucket < :to" + i + uriFilter);
+            }
+        }
+
+        String sql = "SELECT app, uri, SUM(hits) AS hits FROM (" + union + ") AS r " +
+                "GROUP BY app, uri " +
+                "ORDER BY hits DESC";
+        return jdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+
+    public List<ViewStatsDto> getTotalStats(List<String> uris) {
+        String sql = "SELECT app, uri, SUM(hits) AS hits FROM stat_rollup " +
+                "WHERE granularity = :granularity AND uri IN (:uris) " +
+                "GROUP BY app, uri " +
+                "ORDER BY hits DESC";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("granularity", RollupGranularity.DAY.name())
+                .addValue("uris", uris);
+        return jdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+}
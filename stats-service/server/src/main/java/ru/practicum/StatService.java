@@ -5,11 +5,20 @@ import ru.practicum.dto.ViewStatsDto;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 public interface StatService {
 
     void saveStat(StatsHitDto statsHitDto);
 
+    int saveStats(List<StatsHitDto> statsHitDtos);
+
+    int saveStatsStream(Iterator<StatsHitDto> statsHitDtos);
+
     Collection<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
+
+    Collection<ViewStatsDto> getApproximateUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    Collection<ViewStatsDto> getTotalStats(List<String> uris, Boolean unique, Boolean approx);
 }
\ No newline at end of file
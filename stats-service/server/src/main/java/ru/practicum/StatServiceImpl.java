@@ -2,6 +2,7 @@ package ru.practicum;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.StatsHitDto;
@@ -11,7 +12,10 @@ import ru.practicum.model.StatsHitMapper;
 import ru.practicum.model.StatHit;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,13 +24,59 @@ import java.util.List;
 public class StatServiceImpl implements StatService {
 
     private final StatRepository repository;
+    private final StatBatchRepository batchRepository;
+    private final StatRollupRepository rollupRepository;
+    private final StatSketchRepository sketchRepository;
+    private final StatVisitorRepository visitorRepository;
+    private final StatAggregator aggregator;
+
+    @Value("${stats.hit.batch-size}")
+    private int batchSize;
+
+    @Value("${stats.rollup.enabled}")
+    private boolean rollupEnabled;
+
+    @Value("${stats.sketch.enabled}")
+    private boolean sketchEnabled;
+
+    @Value("${stats.visitor.enabled}")
+    private boolean visitorEnabled;
 
     @Override
     public void saveStat(StatsHitDto dto) {
         StatHit statHit = repository.save(StatsHitMapper.statsHitDtoToStatHit(dto));
+        aggregator.addHits(List.of(statHit));
         log.info("Saved statistics {}", statHit);
     }
 
+    @Override
+    public int saveStats(List<StatsHitDto> dtos) {
+        List<StatHit> statHits = dtos.stream()
+                .map(StatsHitMapper::statsHitDtoToStatHit)
+                .collect(Collectors.toList());
+        int accepted = batchRepository.saveAll(statHits);
+        aggregator.addHits(statHits);
+        log.info("Saved batch of {} statistics", accepted);
+        return accepted;
+    }
+
+    @Override
+    public int saveStatsStream(Iterator<StatsHitDto> statsHitDtos) {
+        int accepted = 0;
+        List<StatsHitDto> chunk = new ArrayList<>(batchSize);
+        while (statsHitDtos.hasNext()) {
+            chunk.add(statsHitDtos.next());
+            if (chunk.size() == batchSize) {
+                accepted += saveStats(chunk);
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            accepted += saveStats(chunk);
+        }
+        return accepted;
+    }
+
     @Override
     public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
         if (start.isAfter(end)) {
@@ -38,6 +88,9 @@ public class StatServiceImpl implements StatService {
             if (unique) {
                 log.info("Got all statistics with isUnique {} ", unique);
                 return repository.getStatsByUniqueIp(start, end);
+            } else if (rollupEnabled) {
+                log.info("Got all statistics from rollups with isUnique {} ", unique);
+                return rollupRepository.getStats(start, end, uris);
             } else {
                 log.info("Got all statistics with isUnique {} ", unique);
                 return repository.getAllStats(start, end);
@@ -46,10 +99,45 @@ public class StatServiceImpl implements StatService {
             if (unique) {
                 log.info("Got all statistics with isUnique {} when uris {} ", unique, uris);
                 return repository.getStatsByUrisByUniqueIp(start, end, uris);
+            } else if (rollupEnabled) {
+                log.info("Got all statistics from rollups with isUnique {} when uris {} ", unique, uris);
+                return rollupRepository.getStats(start, end, uris);
             } else {
                 log.info("Got all statistics with isUnique {} when uris {} ", unique, uris);
                 return repository.getAllStatsByUris(start, end, uris);
             }
         }
     }
+
+    @Override
+    public List<ViewStatsDto> getApproximateUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        if (!sketchEnabled) {
+            return getStats(start, end, uris, true);
+        }
+        if (start.isAfter(end)) {
+            log.info("End time can't be before start time");
+            throw new ValidationException("End time can't be before start time");
+        }
+
+        log.info("Got approximate unique statistics when uris {} ", uris);
+        return sketchRepository.getUniqueStats(start, end, uris);
+    }
+
+    @Override
+    public List<ViewStatsDto> getTotalStats(List<String> uris, Boolean unique, Boolean approx) {
+        log.info("Got total statistics with isUnique {} when uris {} ", unique, uris);
+        if (unique) {
+            if (approx && sketchEnabled) {
+                return sketchRepository.getTotalUniqueStats(uris);
+            }
+            if (visitorEnabled) {
+                return visitorRepository.getTotalUniqueStats(uris);
+            }
+            return repository.getTotalStatsByUrisByUniqueIp(uris);
+        }
+        if (rollupEnabled) {
+            return rollupRepository.getTotalStats(uris);
+        }
+        return repository.getTotalStatsByUris(uris);
+    }
 }
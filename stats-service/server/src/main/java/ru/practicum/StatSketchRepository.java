@@ -0,0 +1,134 @@
+package ru.practicum;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.HyperLogLog;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.RollupRange;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class StatSketchRepository {
+
+    static final RollupGranularity[] SKETCH_LEVELS = {RollupGranularity.DAY, RollupGranularity.HOUR};
+
+    private static final String INSERT_SKETCH = "INSERT INTO stat_sketch (granularity, bucket, app, uri, registers) " +
+            "VALUES (:granularity, :bucket, :app, :uri, :registers) " +
+            "ON CONFLICT (granularity, bucket, app, uri) DO NOTHING";
+
+    private static final int LOCK_CHUNK_SIZE = 1000;
+
+    private static final String LOCK_SKETCHES = "SELECT granularity, bucket, app, uri, registers FROM stat_sketch " +
+            "WHERE (granularity, bucket, app, uri) IN (:keys) " +
+            "ORDER BY granularity, bucket, app COLLATE \"C\", uri COLLATE \"C\" FOR UPDATE";
+
+    private static final String UPDATE_SKETCH = "UPDATE stat_sketch SET registers = :registers " +
+            "WHERE granularity = :granularity AND bucket = :bucket AND app = :app AND uri = :uri";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Merges the given sketches into the stored ones. The stored registers are merged into the given sketches as
+     * well, which is harmless to repeat because a merge keeps the larger register.
+     */
+    public void mergeSketches(Map<RollupKey, HyperLogLog> sketches) {
+        jdbcTemplate.batchUpdate(INSERT_SKETCH, sketches.entrySet().stream()
+                .map(entry -> toParams(entry.getKey(), entry.getValue()))
+                .toArray(MapSqlParameterSource[]::new));
+
+        List<RollupKey> keys = new ArrayList<>(sketches.keySet());
+        for (int from = 0; from < keys.size(); from += LOCK_CHUNK_SIZE) {
+            List<Object[]> chunk = keys.subList(from, Math.min(from + LOCK_CHUNK_SIZE, keys.size())).stream()
+                    .map(key -> new Object[]{key.getGranularity().name(), Timestamp.valueOf(key.getBucket()),
+                            key.getApp(), key.getUri()})
+                    .collect(Collectors.toList());
+            jdbcTemplate.query(LOCK_SKETCHES, new MapSqlParameterSource("keys", chunk), rs -> {
+                RollupKey key = new RollupKey(RollupGranularity.valueOf(rs.getString("granularity")),
+                        rs.getTimestamp("bucket").toLocalDateTime(), rs.getString("app"), rs.getString("uri"));
+                sketches.get(key).merge(new HyperLogLog(rs.getBytes("registers")));
+            });
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_SKETCH, sketches.entrySet().stream()
+                .map(entry -> toParams(entry.getKey(), entry.getValue()))
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    public List<ViewStatsDto> getUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String uriFilter = "";
+        if (!uris.isEmpty()) {
+            uriFilter = " AND uri IN (:uris)";
+            params.addValue("uris", uris);
+        }
+
+        Map<String, Map<String, HyperLogLog>> merged = new HashMap<>();
+        for (RollupRange range : RollupRange.split(start, end.plusSeconds(1), SKETCH_LEVELS)) {
+            params.addValue("from", Timestamp.valueOf(range.getFrom()));
+            params.addValue("to", Timestamp.valueOf(range.getTo()));
+            if (range.isRaw()) {
+                jdbcTemplate.query("SELECT DISTINCT app, uri, ip FROM stat " +
+                        "WHERE created >= :from AND created < :to" + uriFilter, params, rs -> {
+                            sketchFor(merged, rs.getString("app"), rs.getString("uri")).add(rs.getString("ip"));
+                        });
+            } else {
+                params.addValue("granularity", range.getGranularity().name());
+                jdbcTemplate.query("SELECT app, uri, registers FROM stat_sketch " +
+                        "WHERE granularity = :granularity AND bucket >= :from AND bucket < :to" + uriFilter,
+                        params, rs -> {
+                            sketchFor(merged, rs.getString("app"), rs.getString("uri"))
+                                    .merge(new HyperLogLog(rs.getBytes("registers")));
+                        });
+            }
+        }
+
+        return toViewStats(merged);
+    }
+
+    public List<ViewStatsDto> getTotalUniqueStats(List<String> uris) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("granularity", RollupGranularity.DAY.name())
+                .addValue("uris", uris);
+        Map<String, Map<String, HyperLogLog>> merged = new HashMap<>();
+        jdbcTemplate.query("SELECT app, uri, registers FROM stat_sketch " +
+                "WHERE granularity = :granularity AND uri IN (:uris)", params, rs -> {
+                    sketchFor(merged, rs.getString("app"), rs.getString("uri"))
+                            .merge(new HyperLogLog(rs.getBytes("registers")));
+                });
+        return toViewStats(merged);
+    }
+
+    private List<ViewStatsDto> toViewStats(Map<String, Map<String, HyperLogLog>> merged) {
+        return merged.entrySet().stream()
+                .flatMap(app -> app.getValue().entrySet().stream()
+                        .map(uri -> new ViewStatsDto(app.getKey(), uri.getKey(), uri.getValue().estimate())))
+                .sorted(Comparator.comparingLong(ViewStatsDto::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private HyperLogLog sketchFor(Map<String, Map<String, HyperLogLog>> merged, String app, String uri) {
+        return merged.computeIfAbsent(app, key -> new HashMap<>()).computeIfAbsent(uri, key -> new HyperLogLog());
+    }
+
+    private MapSqlParameterSource toParams(RollupKey key, HyperLogLog sketch) {
+        return new MapSqlParameterSource()
+                .addValue("granularity", key.getGranularity().name())
+                .addValue("bucket", Timestamp.valueOf(key.getBucket()))
+                .addValue("app", key.getApp())
+                .addValue("uri", key.getUri())
+                .addValue("registers", sketch.toBytes());
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.ViewStatsDto;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps every distinct (app, uri, ip) ever seen, so exact all-time unique totals survive the removal of expired
+ * stat partitions.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StatVisitorRepository {
+
+    private static final String INSERT_VISITOR = "INSERT INTO stat_visitor (app, uri, ip) " +
+            "VALUES (:app, :uri, :ip) " +
+            "ON CONFLICT (app, uri, ip) DO NOTHING";
+
+    private static final Comparator<List<String>> VISITOR_ORDER = Comparator
+            .comparing((List<String> visitor) -> visitor.get(0))
+            .thenComparing(visitor -> visitor.get(1))
+            .thenComparing(visitor -> visitor.get(2));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes visitors as (app, uri, ip) lists and inserts them in one order, so concurrent flushes can't deadlock.
+     */
+    public void addVisitors(Collection<List<String>> visitors) {
+        jdbcTemplate.batchUpdate(INSERT_VISITOR, visitors.stream()
+                .sorted(VISITOR_ORDER)
+                .distinct()
+                .map(visitor -> new MapSqlParameterSource()
+                        .addValue("app", visitor.get(0))
+                        .addValue("uri", visitor.get(1))
+                        .addValue("ip", visitor.get(2)))
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    public List<ViewStatsDto> getTotalUniqueStats(List<String> uris) {
+        String sql = "SELECT app, uri, COUNT(*) AS hits FROM stat_visitor " +
+                "WHERE uri IN (:uris) " +
+                "GROUP BY app, uri " +
+                "ORDER BY hits DESC";
+        return jdbcTemplate.query(sql, new MapSqlParameterSource("uris", uris), (rs, rowNum) ->
+                new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+}
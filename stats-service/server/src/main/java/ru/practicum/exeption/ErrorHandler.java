@@ -1,5 +1,6 @@
 package ru.practicum.exeption;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -7,6 +8,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.validation.ConstraintViolationException;
 import java.util.Map;
 
 @RestControllerAdvice
@@ -27,4 +29,18 @@ public class ErrorHandler {
         return Map.of("error", "Validation Error", "errorMessage", e.getMessage());
     }
 
+    @ExceptionHandler({ConstraintViolationException.class, JsonProcessingException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleBatchValidationException(Exception e) {
+        log.error("Код ошибки: {}, {}", HttpStatus.BAD_REQUEST, e.getMessage());
+        return Map.of("error", "Validation Error", "errorMessage", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    public Map<String, String> handlePayloadTooLargeException(final PayloadTooLargeException e) {
+        log.error("Код ошибки: {}, {}", HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+        return Map.of("error", "Payload Too Large", "errorMessage", e.getMessage());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package ru.practicum.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+@ToString
+public class RollupKey implements Comparable<RollupKey> {
+
+    private static final Comparator<RollupKey> ORDER = Comparator
+            .comparing(RollupKey::getGranularity)
+            .thenComparing(RollupKey::getBucket)
+            .thenComparing(RollupKey::getApp)
+            .thenComparing(RollupKey::getUri);
+
+    private final RollupGranularity granularity;
+
+    private final LocalDateTime bucket;
+
+    private final String app;
+
+    private final String uri;
+
+    public static RollupKey of(RollupGranularity granularity, StatHit hit) {
+        return new RollupKey(granularity, granularity.floor(hit.getTimestamp()), hit.getApp(), hit.getUri());
+    }
+
+    @Override
+    public int compareTo(RollupKey other) {
+        return ORDER.compare(this, other);
+    }
+}
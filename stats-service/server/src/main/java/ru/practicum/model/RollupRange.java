@@ -0,0 +1,56 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class RollupRange {
+
+    private final RollupGranularity granularity;
+
+    private final LocalDateTime from;
+
+    private final LocalDateTime to;
+
+    public boolean isRaw() {
+        return granularity == null;
+    }
+
+    public static List<RollupRange> split(LocalDateTime from, LocalDateTime to) {
+        return split(from, to, RollupGranularity.values());
+    }
+
+    public static List<RollupRange> split(LocalDateTime from, LocalDateTime to, RollupGranularity... levels) {
+        List<RollupRange> ranges = new ArrayList<>();
+        split(from, to, levels, 0, ranges);
+        return ranges;
+    }
+
+    private static void split(LocalDateTime from, LocalDateTime to, RollupGranularity[] levels, int level,
+                              List<RollupRange> ranges) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (level == levels.length) {
+            ranges.add(new RollupRange(null, from, to));
+            return;
+        }
+        RollupGranularity granularity = levels[level];
+        LocalDateTime first = granularity.ceil(from);
+        LocalDateTime last = granularity.floor(to);
+        if (first.isBefore(last)) {
+            split(from, first, levels, level + 1, ranges);
+            ranges.add(new RollupRange(granularity, first, last));
+            split(last, to, levels, level + 1, ranges);
+        } else {
+            split(from, to, levels, level + 1, ranges);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+DROP TABLE IF EXISTS stat CASCADE;
+DROP SEQUENCE IF EXISTS stat_id_seq;
+
+CREATE SEQUENCE stat_id_seq AS INT;
+
+CREATE TABLE stat (
+id INT DEFAULT nextval('stat_id_seq')               NOT NULL,
+app varchar(128)                                    NOT NULL,
+uri varchar(128)                                    NOT NULL,
+ip varchar(64)                                      NOT NULL,
+created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+PRIMARY KEY (id, created)
+) PARTITION BY RANGE (created);
+
+ALTER SEQUENCE stat_id_seq OWNED BY stat.id;
+
+CREATE TABLE stat_default PARTITION OF stat DEFAULT;
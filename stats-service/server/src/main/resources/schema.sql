@@ -1,4 +1,4 @@
-DROP TABLE IF EXISTS stat CASCADE;
+DROP TABLE IF EXISTS stat_rollup, stat_sketch, stat_visitor CASCADE;
 
 CREATE TABLE IF NOT EXISTS stat (
 id INT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
@@ -6,4 +6,32 @@ app varchar(128)                                    NOT NULL,
 uri varchar(128)                                    NOT NULL,
 ip varchar(64)                                      NOT NULL,
 created TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS stat_uri_created_idx ON stat (uri, created);
+CREATE INDEX IF NOT EXISTS stat_uri_ip_idx ON stat (uri, ip);
+
+CREATE TABLE IF NOT EXISTS stat_rollup (
+granularity varchar(8)                              NOT NULL,
+bucket TIMESTAMP WITHOUT TIME ZONE                  NOT NULL,
+app varchar(128)                                    NOT NULL,
+uri varchar(128)                                    NOT NULL,
+hits BIGINT                                         NOT NULL,
+PRIMARY KEY (granularity, bucket, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS stat_sketch (
+granularity varchar(8)                              NOT NULL,
+bucket TIMESTAMP WITHOUT TIME ZONE                  NOT NULL,
+app varchar(128)                                    NOT NULL,
+uri varchar(128)                                    NOT NULL,
+registers BYTEA                                     NOT NULL,
+PRIMARY KEY (granularity, bucket, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS stat_visitor (
+app varchar(128)                                    NOT NULL,
+uri varchar(128)                                    NOT NULL,
+ip varchar(64)                                      NOT NULL,
+PRIMARY KEY (app, uri, ip)
 );
\ No newline at end of file
@@ -0,0 +1,149 @@
+package ru.practicum;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.model.HyperLogLog;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.StatHit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatAggregatorTest {
+    @Mock
+    private StatRollupRepository rollupRepository;
+    @Mock
+    private StatSketchRepository sketchRepository;
+    @Mock
+    private StatVisitorRepository visitorRepository;
+
+    private StatAggregator aggregator;
+
+    private LocalDateTime time;
+
+    @BeforeEach
+    public void beforeEach() {
+        time = LocalDateTime.of(2023, 1, 14, 10, 15, 30);
+        aggregator = new StatAggregator(rollupRepository, sketchRepository, visitorRepository, true, true, true);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private StatHit hit(String uri, String ip) {
+        return StatHit.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip(ip)
+                .timestamp(time)
+                .build();
+    }
+
+    private Map<RollupKey, Long> rollups(String uri, long hits) {
+        return Map.of(RollupKey.of(RollupGranularity.MINUTE, hit(uri, "")), hits,
+                RollupKey.of(RollupGranularity.HOUR, hit(uri, "")), hits,
+                RollupKey.of(RollupGranularity.DAY, hit(uri, "")), hits);
+    }
+
+    @Test
+    public void flushMergesBatchesIntoOneWriteTest() {
+        aggregator.addHits(List.of(hit("/events/1", "10.0.0.1"), hit("/events/1", "10.0.0.2")));
+        aggregator.addHits(List.of(hit("/events/1", "10.0.0.1")));
+
+        aggregator.flush();
+        aggregator.flush();
+
+        verify(rollupRepository, times(1)).addIncrements(rollups("/events/1", 3));
+        verify(visitorRepository, times(1)).addVisitors(Set.of(
+                List.of("ewm-main-service", "/events/1", "10.0.0.1"),
+                List.of("ewm-main-service", "/events/1", "10.0.0.2")));
+    }
+
+    @Test
+    public void flushMergesSketchesOfBatchesAndWritesThemOnceTest() {
+        aggregator.addHits(List.of(hit("/events/1", "10.0.0.1"), hit("/events/1", "10.0.0.2")));
+        aggregator.addHits(List.of(hit("/events/1", "10.0.0.1"), hit("/events/1", "10.0.0.3")));
+
+        aggregator.flush();
+
+        ArgumentCaptor<Map<RollupKey, HyperLogLog>> sketches = ArgumentCaptor.forClass(Map.class);
+        verify(sketchRepository, times(1)).mergeSketches(sketches.capture());
+        assertEquals(Set.of(RollupKey.of(RollupGranularity.HOUR, hit("/events/1", "")),
+                RollupKey.of(RollupGranularity.DAY, hit("/events/1", ""))), sketches.getValue().keySet());
+        sketches.getValue().values().forEach(sketch -> assertEquals(3, sketch.estimate()));
+    }
+
+    @Test
+    public void addHitsCountsHitsOnlyAfterCommitTest() {
+        TransactionSynchronizationManager.initSynchronization();
+        aggregator.addHits(List.of(hit("/events/1", "10.0.0.1")));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        aggregator.flush();
+        verifyNoInteractions(rollupRepository, sketchRepository, visitorRepository);
+
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        aggregator.flush();
+        verify(rollupRepository, times(1)).addIncrements(rollups("/events/1", 1));
+    }
+
+    @Test
+    public void addHitsDropsHitsOfRolledBackTransactionTest() {
+        TransactionSynchronizationManager.initSynchronization();
+        aggregator.addHits(List.of(hit("/events/1", "10.0.0.1")));
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        aggregator.flush();
+
+        verifyNoInteractions(rollupRepository, sketchRepository, visitorRepository);
+    }
+
+    @Test
+    public void flushKeepsCountsWhenItsTransactionRollsBackTest() {
+        aggregator.addHits(List.of(hit("/events/1", "10.0.0.1")));
+        TransactionSynchronizationManager.initSynchronization();
+        aggregator.flush();
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        aggregator.addHits(List.of(hit("/events/1", "10.0.0.1")));
+        aggregator.flush();
+
+        verify(rollupRepository, times(1)).addIncrements(rollups("/events/1", 1));
+        verify(rollupRepository, times(1)).addIncrements(rollups("/events/1", 2));
+        verify(visitorRepository, times(2)).addVisitors(Set.of(List.of("ewm-main-service", "/events/1", "10.0.0.1")));
+    }
+
+    @Test
+    public void addHitsIgnoresHitsWhenAggregatesDisabledTest() {
+        aggregator = new StatAggregator(rollupRepository, sketchRepository, visitorRepository, false, false, false);
+
+        aggregator.addHits(List.of(hit("/events/1", "10.0.0.1")));
+        aggregator.flush();
+
+        verifyNoInteractions(rollupRepository, sketchRepository, visitorRepository);
+    }
+}
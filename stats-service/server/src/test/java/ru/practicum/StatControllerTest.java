@@ -9,19 +9,26 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import ru.practicum.dto.StatsHitDto;
+import ru.practicum.dto.ViewStatsDto;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 
 @AutoConfigureMockMvc
 @WebMvcTest(controllers = StatController.class)
+@TestPropertySource(properties = "stats.hit.stream.max-bytes=1024")
 public class StatControllerTest {
 
     @Autowired
@@ -60,4 +67,119 @@ public class StatControllerTest {
 
         verify(statService, times(1)).saveStat(any(StatsHitDto.class));
     }
+
+    @Test
+    public void testSaveStatsHitBatch() throws Exception {
+        StatsHitDto statsHitDto = StatsHitDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/2")
+                .ip("192.163.0.1")
+                .timestamp(LocalDateTime.of(2023, 1, 14, 0, 0))
+                .build();
+        when(statService.saveStats(anyList())).thenReturn(2);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/hit/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(statsHitDto, statsHitDto))))
+                .andDo(print())
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.accepted").value(2));
+
+        verify(statService, times(1)).saveStats(anyList());
+    }
+
+    @Test
+    public void testSaveStatsHitBatchNdjson() throws Exception {
+        String hit = "{\"app\":\"ewm-main-service\",\"uri\":\"/events/2\",\"ip\":\"192.163.0.1\","
+                + "\"timestamp\":\"2023-01-14 00:00:00\"}";
+        when(statService.saveStatsStream(any())).thenAnswer(invocation -> drain(invocation.getArgument(0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/hit/batch")
+                        .contentType("application/x-ndjson")
+                        .content(hit + "\n" + hit + "\n"))
+                .andDo(print())
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.accepted").value(2));
+
+        verify(statService, times(1)).saveStatsStream(any());
+    }
+
+    @Test
+    public void testSaveStatsHitBatchNdjsonFailsWholeStreamOnInvalidLine() throws Exception {
+        String hit = "{\"app\":\"ewm-main-service\",\"uri\":\"/events/2\",\"ip\":\"192.163.0.1\","
+                + "\"timestamp\":\"2023-01-14 00:00:00\"}\n";
+        String blankUri = hit.replace("/events/2", "");
+        when(statService.saveStatsStream(any())).thenAnswer(invocation -> drain(invocation.getArgument(0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/hit/batch")
+                        .contentType("application/x-ndjson")
+                        .content(hit + blankUri))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.post("/hit/batch")
+                        .contentType("application/x-ndjson")
+                        .content(hit + "{\"app\":"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verify(statService, never()).saveStats(anyList());
+    }
+
+    @Test
+    public void testSaveStatsHitBatchNdjsonTooLarge() throws Exception {
+        String hit = "{\"app\":\"ewm-main-service\",\"uri\":\"/events/2\",\"ip\":\"192.163.0.1\","
+                + "\"timestamp\":\"2023-01-14 00:00:00\"}\n";
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/hit/batch")
+                        .contentType("application/x-ndjson")
+                        .content(hit.repeat(20)))
+                .andExpect(MockMvcResultMatchers.status().isPayloadTooLarge());
+
+        verify(statService, never()).saveStatsStream(any());
+    }
+
+    @Test
+    public void testSaveStatsHitBatchWithBlankUri() throws Exception {
+        StatsHitDto statsHitDto = StatsHitDto.builder()
+                .app("ewm-main-service")
+                .uri("")
+                .ip("192.163.0.1")
+                .timestamp(LocalDateTime.of(2023, 1, 14, 0, 0))
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/hit/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(statsHitDto))))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verify(statService, never()).saveStats(anyList());
+    }
+
+    @Test
+    public void testGetTotalViewStats() throws Exception {
+        when(statService.getTotalStats(List.of("/events/1"), true, false))
+                .thenReturn(List.of(new ViewStatsDto("ewm-main-service", "/events/1", 5)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/stats/count")
+                        .param("uris", "/events/1")
+                        .param("unique", "true"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].uri").value("/events/1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].hits").value(5));
+    }
+
+    @Test
+    public void testGetTotalViewStatsWithoutUris() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/stats/count"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verify(statService, never()).getTotalStats(anyList(), any(), any());
+    }
+
+    private int drain(Iterator<StatsHitDto> statsHitDtos) {
+        int accepted = 0;
+        while (statsHitDtos.hasNext()) {
+            statsHitDtos.next();
+            accepted++;
+        }
+        return accepted;
+    }
 }
@@ -0,0 +1,120 @@
+package ru.practicum;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.dto.StatsHitDto;
+import ru.practicum.dto.ViewStatsDto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the partition DDL and retention against PostgreSQL with rollups, sketches and visitors switched on.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.schema-locations=classpath:schema-postgresql.sql,classpath:schema.sql",
+        "stats.rollup.enabled=true",
+        "stats.sketch.enabled=true",
+        "stats.visitor.enabled=true",
+        "stats.partition.enabled=true"
+})
+@AutoConfigureEmbeddedDatabase(type = POSTGRES, provider = ZONKY)
+@Import({StatServiceImpl.class, StatBatchRepository.class, StatRollupRepository.class, StatSketchRepository.class,
+        StatVisitorRepository.class, StatAggregator.class, StatPartitionManager.class})
+class StatPartitionManagerPostgresTest {
+
+    private static final String URI = "/events/1";
+
+    @Autowired
+    private StatService statService;
+
+    @Autowired
+    private StatPartitionManager partitionManager;
+
+    @Autowired
+    private StatAggregator aggregator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String partition(LocalDate day) {
+        return "stat_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    private StatsHitDto hit(String ip, LocalDateTime timestamp) {
+        return new StatsHitDto("ewm-main-service", URI, ip, timestamp);
+    }
+
+    private List<String> partitionsOf(String ip) {
+        return jdbcTemplate.queryForList("SELECT tableoid::regclass::text FROM stat WHERE ip = ?", String.class, ip);
+    }
+
+    private void commitAndFlush() {
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        aggregator.flush();
+    }
+
+    private long totalHits(boolean approx) {
+        return statService.getTotalStats(List.of(URI), true, approx).stream()
+                .mapToLong(ViewStatsDto::getHits)
+                .sum();
+    }
+
+    @Test
+    public void maintainPartitionsRoutesHitsIntoDayPartitionsTest() {
+        LocalDate today = LocalDate.now();
+        partitionManager.maintainPartitions();
+
+        statService.saveStats(List.of(hit("10.0.0.1", today.atTime(12, 0)),
+                hit("10.0.0.2", today.plusDays(7).atTime(23, 59))));
+
+        assertEquals(List.of(partition(today)), partitionsOf("10.0.0.1"));
+        assertEquals(List.of(partition(today.plusDays(7))), partitionsOf("10.0.0.2"));
+    }
+
+    @Test
+    public void maintainPartitionsMovesRowsOutOfDefaultPartitionTest() {
+        LocalDate future = LocalDate.now().plusDays(10);
+        statService.saveStats(List.of(hit("10.0.0.1", future.atTime(8, 0))));
+        assertEquals(List.of("stat_default"), partitionsOf("10.0.0.1"));
+
+        new StatPartitionManager(jdbcTemplate, 10, 90, false).maintainPartitions();
+
+        assertEquals(List.of(partition(future)), partitionsOf("10.0.0.1"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stat_default", Long.class));
+    }
+
+    @Test
+    public void uniqueTotalsSurviveRetentionTest() {
+        LocalDate expired = LocalDate.now().minusDays(100);
+        jdbcTemplate.execute("CREATE TABLE " + partition(expired) + " PARTITION OF stat " +
+                "FOR VALUES FROM ('" + expired.atStartOfDay() + "') TO ('" + expired.plusDays(1).atStartOfDay() + "')");
+        statService.saveStats(List.of(hit("10.0.0.1", expired.atTime(10, 0)),
+                hit("10.0.0.2", expired.atTime(11, 0)),
+                hit("10.0.0.1", LocalDateTime.now()),
+                hit("10.0.0.3", LocalDateTime.now())));
+        commitAndFlush();
+        assertEquals(3, totalHits(false));
+
+        partitionManager.maintainPartitions();
+
+        assertTrue(jdbcTemplate.queryForList("SELECT relname FROM pg_class WHERE relname = ?", String.class,
+                partition(expired)).isEmpty());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stat", Long.class));
+        assertEquals(3, totalHits(false));
+        assertEquals(3, totalHits(true));
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatPartitionManagerTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private String partition(LocalDate day) {
+        return "stat_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    @Test
+    public void maintainPartitionsCreatesAheadAndDropsExpiredTest() {
+        LocalDate today = LocalDate.now();
+        String expired = partition(today.minusDays(31));
+        String kept = partition(today.minusDays(30));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of(expired, kept, partition(today)));
+
+        new StatPartitionManager(jdbcTemplate, 2, 30, false).maintainPartitions();
+
+        verify(jdbcTemplate, times(2)).execute(startsWith("CREATE TABLE"));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE " + partition(today)));
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE " + partition(today.plusDays(2))));
+        verify(jdbcTemplate).execute(startsWith("ALTER TABLE stat ATTACH PARTITION " + partition(today.plusDays(2))));
+        verify(jdbcTemplate).execute("DROP TABLE " + expired);
+        verify(jdbcTemplate, never()).execute("DROP TABLE " + kept);
+    }
+
+    @Test
+    public void maintainPartitionsRemovesExpiredBucketsTest() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDate.now().minusDays(30).atStartOfDay());
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+
+        new StatPartitionManager(jdbcTemplate, 0, 30, false).maintainPartitions();
+
+        verify(jdbcTemplate).update(startsWith("DELETE FROM stat_rollup WHERE granularity IN ('MINUTE', 'HOUR')"),
+                eq(cutoff));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM stat_sketch WHERE granularity = 'HOUR'"), eq(cutoff));
+    }
+
+    @Test
+    public void maintainPartitionsFailsWhenPartitionCanNotBeCreatedTest() {
+        doThrow(new BadSqlGrammarException("create", "CREATE TABLE", new SQLException("no parent table")))
+                .when(jdbcTemplate).execute(startsWith("CREATE TABLE"));
+
+        StatPartitionManager manager = new StatPartitionManager(jdbcTemplate, 0, 30, false);
+
+        assertThrows(IllegalStateException.class, manager::maintainPartitions);
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+    }
+
+    @Test
+    public void maintainPartitionsDetachesExpiredWhenArchivingTest() {
+        String expired = partition(LocalDate.now().minusDays(31));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(expired));
+
+        new StatPartitionManager(jdbcTemplate, 0, 30, true).maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE stat DETACH PARTITION " + expired);
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+    }
+}
@@ -6,22 +6,38 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.dto.StatsHitDto;
 import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.exeption.ValidationException;
 import ru.practicum.model.StatHit;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class StatServiceImplTest {
     @Mock
     private StatRepository repository;
+    @Mock
+    private StatBatchRepository batchRepository;
+    @Mock
+    private StatRollupRepository rollupRepository;
+    @Mock
+    private StatSketchRepository sketchRepository;
+    @Mock
+    private StatVisitorRepository visitorRepository;
+    @Mock
+    private StatAggregator aggregator;
     @InjectMocks
     private StatServiceImpl statService;
 
@@ -71,6 +87,52 @@ class StatServiceImplTest {
         verify(repository, times(1)).save(any());
     }
 
+    @Test
+    public void createEndpointHitBatchTest() {
+        when(batchRepository.saveAll(anyList())).thenReturn(2);
+
+        int accepted = statService.saveStats(List.of(statsHitDto, statsHitDto));
+
+        assertEquals(2, accepted);
+        verify(batchRepository, times(1)).saveAll(anyList());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    public void createEndpointHitStreamSavesInChunksTest() {
+        ReflectionTestUtils.setField(statService, "batchSize", 2);
+        when(batchRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        int accepted = statService.saveStatsStream(List.of(statsHitDto, statsHitDto, statsHitDto).iterator());
+
+        assertEquals(3, accepted);
+        verify(batchRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    public void createEndpointHitStreamStopsOnInvalidHitTest() {
+        ReflectionTestUtils.setField(statService, "batchSize", 1);
+        when(batchRepository.saveAll(anyList())).thenReturn(1);
+        Iterator<StatsHitDto> statsHitDtos = List.of(statsHitDto, statsHitDto).iterator();
+        Iterator<StatsHitDto> failing = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public StatsHitDto next() {
+                if (statsHitDtos.hasNext()) {
+                    return statsHitDtos.next();
+                }
+                throw new ValidationException("URI can't be blank");
+            }
+        };
+
+        assertThrows(ValidationException.class, () -> statService.saveStatsStream(failing));
+        verify(batchRepository, times(2)).saveAll(anyList());
+    }
+
     @Test
     public void getStatsWhenUniqueTrueAndUrisEmptyTest() {
         List<String> uris = new ArrayList<>();
@@ -131,4 +193,86 @@ class StatServiceImplTest {
 
         verify(repository, times(1)).getAllStatsByUris(any(), any(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getStatsFromRollupsWhenUniqueFalseTest() {
+        ReflectionTestUtils.setField(statService, "rollupEnabled", true);
+        List<String> uris = List.of("/events/1");
+        when(rollupRepository.getStats(start, end, uris)).thenReturn(List.of(viewStatsDtoOne));
+
+        List<ViewStatsDto> actual = statService.getStats(start, end, uris, false);
+
+        assertEquals(2, actual.get(0).getHits());
+        verify(rollupRepository, times(1)).getStats(start, end, uris);
+        verify(repository, never()).getAllStatsByUris(any(), any(), any());
+    }
+
+    @Test
+    public void createEndpointHitHandsHitToAggregatorTest() {
+        when(repository.save(any())).thenReturn(statHit);
+
+        statService.saveStat(statsHitDto);
+
+        verify(aggregator, times(1)).addHits(List.of(statHit));
+        verifyNoInteractions(rollupRepository, visitorRepository);
+    }
+
+    @Test
+    public void getApproximateUniqueStatsFromSketchesTest() {
+        ReflectionTestUtils.setField(statService, "sketchEnabled", true);
+        List<String> uris = List.of("/events/1");
+        when(sketchRepository.getUniqueStats(start, end, uris)).thenReturn(List.of(viewStatsDtoOne));
+
+        List<ViewStatsDto> actual = statService.getApproximateUniqueStats(start, end, uris);
+
+        assertEquals(2, actual.get(0).getHits());
+        verify(sketchRepository, times(1)).getUniqueStats(start, end, uris);
+        verify(repository, never()).getStatsByUrisByUniqueIp(any(), any(), any());
+    }
+
+    @Test
+    public void getApproximateUniqueStatsFallsBackToExactTest() {
+        List<String> uris = List.of("/events/1");
+        when(repository.getStatsByUrisByUniqueIp(start, end, uris)).thenReturn(List.of(viewStatsDtoOne));
+
+        List<ViewStatsDto> actual = statService.getApproximateUniqueStats(start, end, uris);
+
+        assertEquals(2, actual.get(0).getHits());
+        verify(sketchRepository, never()).getUniqueStats(any(), any(), any());
+    }
+
+    @Test
+    public void getTotalStatsFromRollupsTest() {
+        ReflectionTestUtils.setField(statService, "rollupEnabled", true);
+        List<String> uris = List.of("/events/1");
+        when(rollupRepository.getTotalStats(uris)).thenReturn(List.of(viewStatsDtoOne));
+
+        List<ViewStatsDto> actual = statService.getTotalStats(uris, false, false);
+
+        assertEquals(2, actual.get(0).getHits());
+        verify(repository, never()).getTotalStatsByUris(any());
+    }
+
+    @Test
+    public void getTotalStatsWhenUniqueTest() {
+        List<String> uris = List.of("/events/1");
+        when(repository.getTotalStatsByUrisByUniqueIp(uris)).thenReturn(List.of(viewStatsDtoOne));
+
+        List<ViewStatsDto> actual = statService.getTotalStats(uris, true, false);
+
+        assertEquals(2, actual.get(0).getHits());
+        verify(rollupRepository, never()).getTotalStats(any());
+    }
+
+    @Test
+    public void getTotalStatsWhenUniqueFromVisitorsTest() {
+        ReflectionTestUtils.setField(statService, "visitorEnabled", true);
+        List<String> uris = List.of("/events/1");
+        when(visitorRepository.getTotalUniqueStats(uris)).thenReturn(List.of(viewStatsDtoOne));
+
+        List<ViewStatsDto> actual = statService.getTotalStats(uris, true, false);
+
+        assertEquals(2, actual.get(0).getHits());
+        verify(repository, never()).getTotalStatsByUrisByUniqueIp(any());
+    }
+}
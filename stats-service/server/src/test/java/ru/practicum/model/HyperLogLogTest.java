@@ -0,0 +1,44 @@
+package ru.practicum.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimateIsWithinStandardErrorTest() {
+        HyperLogLog sketch = new HyperLogLog();
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            sketch.add("192.168." + (i >> 8) + "." + (i & 0xFF));
+        }
+
+        assertThat((double) sketch.estimate()).isCloseTo(count, within(count * HyperLogLog.STANDARD_ERROR * 3));
+    }
+
+    @Test
+    void duplicatesAreCountedOnceTest() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("10.0.0." + (i % 10));
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(10);
+    }
+
+    @Test
+    void mergeEqualsSketchOfUnionTest() {
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 5000; i++) {
+            String ip = "10.1." + (i >> 8) + "." + (i & 0xFF);
+            (i < 3000 ? left : right).add(ip);
+            union.add(ip);
+        }
+
+        assertThat(new HyperLogLog(left.toBytes()).merge(right).toBytes()).isEqualTo(union.toBytes());
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollupRangeTest {
+
+    @Test
+    void splitUsesCoarsestRollupAndRawEdgesTest() {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 22, 58, 30);
+        LocalDateTime end = LocalDateTime.of(2023, 1, 4, 1, 2, 15);
+
+        List<RollupRange> ranges = RollupRange.split(start, end);
+
+        assertThat(ranges).extracting(RollupRange::getGranularity).containsExactly(
+                null, RollupGranularity.MINUTE, RollupGranularity.HOUR, RollupGranularity.DAY,
+                RollupGranularity.HOUR, RollupGranularity.MINUTE, null);
+        assertThat(ranges.get(0).getFrom()).isEqualTo(start);
+        assertThat(ranges.get(3).getFrom()).isEqualTo(LocalDateTime.of(2023, 1, 2, 0, 0));
+        assertThat(ranges.get(3).getTo()).isEqualTo(LocalDateTime.of(2023, 1, 4, 0, 0));
+        assertThat(ranges.get(6).getTo()).isEqualTo(end);
+    }
+
+    @Test
+    void splitIsContiguousTest() {
+        LocalDateTime start = LocalDateTime.of(2023, 3, 5, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 3, 5, 13, 30, 1);
+
+        List<RollupRange> ranges = RollupRange.split(start, end);
+
+        assertThat(ranges.get(0).getFrom()).isEqualTo(start);
+        for (int i = 1; i < ranges.size(); i++) {
+            assertThat(ranges.get(i).getFrom()).isEqualTo(ranges.get(i - 1).getTo());
+        }
+        assertThat(ranges.get(ranges.size() - 1).getTo()).isEqualTo(end);
+        assertThat(ranges).extracting(RollupRange::getGranularity).doesNotContain(RollupGranularity.DAY);
+    }
+
+    @Test
+    void splitEmptyRangeTest() {
+        LocalDateTime time = LocalDateTime.of(2023, 3, 5, 10, 0);
+
+        assertThat(RollupRange.split(time, time)).isEmpty();
+    }
+}